@@ -1,20 +1,150 @@
 package com.example;
 
+import com.example.infrastructure.ConsumerMetrics;
+import com.example.infrastructure.EnvConfig;
+import com.example.infrastructure.KafkaBarSink;
 import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.PriceActionDecoder;
+import com.example.infrastructure.PriceActionDeserializer;
+import com.example.infrastructure.QueryApiServer;
+import com.example.infrastructure.StreamingPriceActionDecoder;
+import com.example.infrastructure.SymbolCache;
+import com.example.infrastructure.TracingConfig;
+import com.example.infrastructure.TransactionalOutput;
+import com.example.infrastructure.TreePriceActionDecoder;
+import com.example.infrastructure.VirtualThreads;
+import com.example.presentation.AverageSink;
+import com.example.presentation.IndicatorSnapshotCache;
 import com.example.presentation.RollingAverageCalculator;
+import com.example.presentation.SequenceReorderBuffer;
+import com.example.presentation.bar.AsyncBarSink;
+import com.example.presentation.bar.BarAggregator;
+import com.example.presentation.bar.BarInterval;
+import com.example.presentation.bar.BarSink;
+import com.example.presentation.bar.LoggingBarSink;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.Indicators;
+import com.example.service.ParallelPriceActionConsumer;
+import com.example.service.PriceActionReplay;
 import com.example.service.PriceActionService;
+import com.example.service.TransactionalPriceActionConsumer;
+import com.example.service.WindowCheckpointer;
 
-import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Tracer;
 
+import java.nio.file.Paths;
+import java.util.UUID;
+
 public class App {
-    public static void main(String[] args) {
-        Tracer tracer = GlobalOpenTelemetry.getTracer("price-action-consumer");
+    public static void main(String[] args) throws Exception {
+        OpenTelemetry openTelemetry = TracingConfig.initialize("price-action-consumer");
+        Tracer tracer = openTelemetry.getTracer("price-action-consumer");
 
         KafkaConsumerConfig kafkaConfig = new KafkaConsumerConfig(tracer);
-        RollingAverageCalculator calculator = new RollingAverageCalculator(tracer, 5);
-        PriceActionService service = new PriceActionService(kafkaConfig, calculator, tracer);
+        IndicatorEngine indicatorEngine = new IndicatorEngine(
+                EnvConfig.getInt("ROLLING_WINDOW_SIZE", 5),
+                Indicators.parse(EnvConfig.getString("INDICATORS", Indicators.ALL)));
+        RollingAverageCalculator calculator = new RollingAverageCalculator(
+                tracer, indicatorEngine, TracingConfig.computeSpansEnabled());
+        SymbolCache symbols = new SymbolCache();
+        PriceActionDecoder decoder = "tree".equals(EnvConfig.getString("PRICE_ACTION_DECODER", "streaming"))
+                ? new TreePriceActionDecoder()
+                : new StreamingPriceActionDecoder(symbols);
+        PriceActionDeserializer deserializer = new PriceActionDeserializer(decoder, symbols);
+        String mode = EnvConfig.getString("CONSUMER_MODE", "record");
+        String barTopic = EnvConfig.getString("BAR_TOPIC", KafkaBarSink.PRICE_ACTION_BARS_TOPIC);
+        // Transactional mode publishes bars through its own producer, inside the transaction
+        TransactionalOutput transactionalOutput = "transactional".equals(mode)
+                ? new TransactionalOutput(
+                        kafkaConfig.createTransactionalProducer(EnvConfig.getString("TRANSACTIONAL_ID",
+                                "price-action-consumer-" + EnvConfig.getString("HOSTNAME", UUID.randomUUID().toString()))),
+                        EnvConfig.getString("AVERAGES_TOPIC", TransactionalOutput.PRICE_ACTION_AVERAGES_TOPIC),
+                        barTopic)
+                : null;
+        BarSink barSink;
+        if (transactionalOutput != null) {
+            barSink = transactionalOutput.bars();
+        } else if ("kafka".equals(EnvConfig.getString("BAR_SINK", "log"))) {
+            barSink = new KafkaBarSink(kafkaConfig.createProducer(), barTopic);
+        } else {
+            barSink = new LoggingBarSink();
+        }
+        if (transactionalOutput == null && EnvConfig.getBoolean("BAR_SINK_ASYNC", false)) {
+            barSink = new AsyncBarSink(barSink, VirtualThreads.newTaskExecutor("bar-sink"),
+                    EnvConfig.getInt("BAR_SINK_MAX_IN_FLIGHT", 1024));
+        }
+        // The query API reads the latest values from a snapshot cache the processing threads publish to
+        IndicatorSnapshotCache snapshotCache = !"replay".equals(mode) && EnvConfig.getBoolean("QUERY_API_ENABLED", true)
+                ? new IndicatorSnapshotCache(indicatorEngine,
+                        EnvConfig.getLong("QUERY_API_PUBLISH_INTERVAL_MS", 0),
+                        EnvConfig.getInt("QUERY_API_MAX_BARS", 60))
+                : null;
+        BarAggregator barAggregator = new BarAggregator(
+                BarInterval.parseList(EnvConfig.getString("BAR_INTERVALS", "1s,1m,5m")),
+                EnvConfig.getLong("BAR_ALLOWED_LATENESS_MS", 2000),
+                EnvConfig.getLong("BAR_IDLE_TIMEOUT_MS", BarAggregator.DEFAULT_IDLE_TIMEOUT_MS),
+                snapshotCache != null ? snapshotCache.recording(barSink) : barSink);
+        String snapshotDirectory = EnvConfig.getString("WINDOW_SNAPSHOT_DIR", "");
+        // A replay rebuilds the windows from scratch, so it must not start from a restored snapshot
+        WindowCheckpointer checkpointer;
+        if (snapshotDirectory.isEmpty()) {
+            checkpointer = WindowCheckpointer.disabled();
+        } else if ("replay".equals(mode)) {
+            checkpointer = WindowCheckpointer.openForReplay(Paths.get(snapshotDirectory), indicatorEngine);
+        } else {
+            checkpointer = WindowCheckpointer.open(Paths.get(snapshotDirectory), indicatorEngine,
+                    EnvConfig.getLong("WINDOW_SNAPSHOT_INTERVAL_MS", 30_000));
+        }
+        // Restores the order of underlyings the producer spreads over several partitions (batch and transactional modes);
+        // batch mode also needs WINDOW_SNAPSHOT_DIR, so offsets are only committed once held ticks are applied
+        SequenceReorderBuffer reorderBuffer = EnvConfig.getBoolean("CONSUMER_REORDER", false)
+                ? SequenceReorderBuffer.create(EnvConfig.getInt("CONSUMER_REORDER_MAX_HELD", 1000),
+                        EnvConfig.getLong("CONSUMER_REORDER_MAX_HOLD_MS", 500),
+                        EnvConfig.getLong("CONSUMER_REORDER_IDLE_MS", SequenceReorderBuffer.DEFAULT_IDLE_MS))
+                : SequenceReorderBuffer.disabled();
+        PriceActionService service = new PriceActionService(kafkaConfig, calculator, barAggregator, checkpointer,
+                reorderBuffer, snapshotCache != null ? snapshotCache : AverageSink.discarding(),
+                ConsumerMetrics.create(openTelemetry), deserializer, tracer);
+
+        if ("replay".equals(mode)) {
+            PriceActionReplay replay = new PriceActionReplay(kafkaConfig, calculator, barAggregator, checkpointer,
+                    deserializer, tracer,
+                    EnvConfig.getInt("REPLAY_READERS", Runtime.getRuntime().availableProcessors()),
+                    EnvConfig.getInt("REPLAY_QUEUE_CAPACITY", 10_000));
+            replay.replay(PriceActionReplay.parseTimestamp(EnvConfig.getString("REPLAY_FROM", "0")),
+                    PriceActionReplay.parseTimestamp(EnvConfig.getString("REPLAY_TO",
+                            String.valueOf(System.currentTimeMillis()))));
+            // Publish the flushed bars before the JVM exits
+            if (barSink instanceof AutoCloseable) {
+                ((AutoCloseable) barSink).close();
+            }
+            return;
+        }
 
-        service.startConsuming();
+        QueryApiServer queryApi = snapshotCache != null
+                ? QueryApiServer.start(snapshotCache, EnvConfig.getInt("QUERY_API_PORT", 8080))
+                : null;
+        try {
+            if ("batch".equals(mode)) {
+                service.startBatchConsuming();
+            } else if ("transactional".equals(mode)) {
+                new TransactionalPriceActionConsumer(kafkaConfig, service, transactionalOutput, tracer,
+                        EnvConfig.getInt("TRANSACTION_MAX_POLLS", 10),
+                        EnvConfig.getLong("TRANSACTION_MAX_MS", 1000)).startConsuming();
+            } else if ("parallel".equals(mode)) {
+                ParallelPriceActionConsumer parallelConsumer = new ParallelPriceActionConsumer(kafkaConfig, service, tracer,
+                        EnvConfig.getInt("CONSUMER_WORKERS", Runtime.getRuntime().availableProcessors()),
+                        !"partition".equals(EnvConfig.getString("CONSUMER_ROUTING", "key")),
+                        EnvConfig.getInt("CONSUMER_MAX_PENDING_POLLS", 4));
+                parallelConsumer.startConsuming();
+            } else {
+                service.startConsuming();
+            }
+        } finally {
+            if (queryApi != null) {
+                queryApi.close();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.infrastructure;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * The consumer's OpenTelemetry metrics. Instruments are created once and
+ * always recorded with the same {@link Attributes} instance, so recording on
+ * the hot path allocates nothing; the SDK still looks up the aggregation of
+ * that attribute set on every add or record.
+ *
+ * <p>Lag is sampled from the consumer's fetch positions after every poll and
+ * reported per partition through an asynchronous gauge, so it costs nothing
+ * between exports.
+ */
+public class ConsumerMetrics {
+    private static final AttributeKey<String> TOPIC = AttributeKey.stringKey("topic");
+    private static final AttributeKey<Long> PARTITION = AttributeKey.longKey("partition");
+
+    private final Attributes attributes = Attributes.empty();
+    private final LongCounter records;
+    private final LongCounter bytes;
+    private final LongCounter errors;
+    private final DoubleHistogram decodeDuration;
+    private final DoubleHistogram computeDuration;
+    private final DoubleHistogram endToEndLatency;
+    private final Map<TopicPartition, Long> lag = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Attributes> partitionAttributes = new ConcurrentHashMap<>();
+
+    public ConsumerMetrics(Meter meter) {
+        records = meter.counterBuilder("price_action.consumer.records")
+                .setDescription("Price action records consumed")
+                .build();
+        bytes = meter.counterBuilder("price_action.consumer.bytes")
+                .setDescription("Serialized price action bytes consumed")
+                .setUnit("By")
+                .build();
+        errors = meter.counterBuilder("price_action.consumer.errors")
+                .setDescription("Records that failed to decode or process")
+                .build();
+        decodeDuration = LatencyHistograms.create(meter, "price_action.consumer.decode.duration",
+                "Time to deserialize one record");
+        computeDuration = LatencyHistograms.create(meter, "price_action.consumer.compute.duration",
+                "Time to update indicators and bars for one record");
+        endToEndLatency = LatencyHistograms.create(meter, "price_action.consumer.end_to_end.latency",
+                "Time from the record's producer timestamp to the end of its processing");
+        meter.gaugeBuilder("price_action.consumer.lag")
+                .setDescription("Records between the consumer position and the end of the partition")
+                .ofLongs()
+                .buildWithCallback(measurement -> lag.forEach(
+                        (partition, value) -> measurement.record(value, attributesFor(partition))));
+    }
+
+    /** Metrics recorded through the given instance, which records nothing unless a meter provider is installed. */
+    public static ConsumerMetrics create(OpenTelemetry openTelemetry) {
+        return new ConsumerMetrics(openTelemetry.getMeter("price-action-consumer"));
+    }
+
+    public void recordDecoded(int serializedSize, long decodeNanos) {
+        records.add(1, attributes);
+        bytes.add(serializedSize, attributes);
+        decodeDuration.record(decodeNanos / 1_000_000.0, attributes);
+    }
+
+    /** Records the compute time and, if the record carries a timestamp, its end-to-end latency. */
+    public void recordProcessed(long computeNanos, long recordTimestampMs) {
+        computeDuration.record(computeNanos / 1_000_000.0, attributes);
+        if (recordTimestampMs >= 0) {
+            endToEndLatency.record(Math.max(0, System.currentTimeMillis() - recordTimestampMs), attributes);
+        }
+    }
+
+    public void recordError() {
+        errors.add(1, attributes);
+    }
+
+    /** Samples the lag of every assigned partition from the consumer's local fetch state. */
+    public void updateLag(Consumer<?, ?> consumer) {
+        lag.keySet().retainAll(consumer.assignment());
+        for (TopicPartition partition : consumer.assignment()) {
+            OptionalLong partitionLag = consumer.currentLag(partition);
+            if (partitionLag.isPresent()) {
+                lag.put(partition, partitionLag.getAsLong());
+            }
+        }
+    }
+
+    private Attributes attributesFor(TopicPartition partition) {
+        return partitionAttributes.computeIfAbsent(partition,
+                tp -> Attributes.of(TOPIC, tp.topic(), PARTITION, (long) tp.partition()));
+    }
+}
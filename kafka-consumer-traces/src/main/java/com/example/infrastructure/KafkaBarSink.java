@@ -0,0 +1,51 @@
+package com.example.infrastructure;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.presentation.bar.Bar;
+import com.example.presentation.bar.BarSink;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Publishes completed bars as JSON to an output topic, keyed by underlying.
+ */
+public class KafkaBarSink implements BarSink, AutoCloseable {
+    public static final String PRICE_ACTION_BARS_TOPIC = "price-action-bars";
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaBarSink.class);
+    private final Producer<String, byte[]> producer;
+    private final String topic;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public KafkaBarSink(Producer<String, byte[]> producer, String topic) {
+        this.producer = producer;
+        this.topic = topic;
+    }
+
+    @Override
+    public void publish(Bar bar) {
+        try {
+            byte[] value = objectMapper.writeValueAsBytes(bar);
+            producer.send(new ProducerRecord<>(topic, bar.getUnderlying(), value), (metadata, exception) -> {
+                if (exception != null) {
+                    logger.error("Failed to publish bar {}", bar, exception);
+                }
+            });
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize bar {}", bar, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
@@ -4,7 +4,12 @@ import java.util.Properties;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,26 +18,111 @@ import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 
 public class KafkaConsumerConfig {
+    public static final String PRICE_ACTION_TOPIC = "price-action";
+
+    private static final String BOOTSTRAP_SERVERS =
+            EnvConfig.getString("KAFKA_BOOTSTRAP_SERVERS", "application-kafka-bootstrap.kafka:9092");
     private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerConfig.class);
     private final Tracer tracer;
+    private final int maxPollRecords;
+    private final int fetchMinBytes;
+    private final int fetchMaxWaitMs;
 
     public KafkaConsumerConfig(Tracer tracer) {
+        this(tracer,
+                EnvConfig.getInt("CONSUMER_MAX_POLL_RECORDS", 500),
+                EnvConfig.getInt("CONSUMER_FETCH_MIN_BYTES", 1),
+                EnvConfig.getInt("CONSUMER_FETCH_MAX_WAIT_MS", 500));
+    }
+
+    public KafkaConsumerConfig(Tracer tracer, int maxPollRecords, int fetchMinBytes, int fetchMaxWaitMs) {
         this.tracer = tracer;
+        this.maxPollRecords = maxPollRecords;
+        this.fetchMinBytes = fetchMinBytes;
+        this.fetchMaxWaitMs = fetchMaxWaitMs;
+    }
+
+    public KafkaConsumer<String, byte[]> createConsumer() {
+        return createConsumer(true);
     }
 
-    public KafkaConsumer<String, String> createConsumer() {
-        Span span = tracer.spanBuilder("create-kafka-consumer").startSpan();
+    /**
+     * Creates a consumer for the price-action group. Callers that commit offsets
+     * themselves pass {@code false} to turn auto-commit off.
+     */
+    public KafkaConsumer<String, byte[]> createConsumer(boolean enableAutoCommit) {
+        return createConsumer(enableAutoCommit, false);
+    }
+
+    /**
+     * Creates a consumer for the price-action group. With {@code readCommitted}
+     * only records of committed producer transactions are returned, as
+     * exactly-once processing requires.
+     */
+    public KafkaConsumer<String, byte[]> createConsumer(boolean enableAutoCommit, boolean readCommitted) {
+        Span span = tracer.spanBuilder("create-kafka-consumer")
+                .setAttribute("enableAutoCommit", enableAutoCommit)
+                .setAttribute("readCommitted", readCommitted)
+                .startSpan();
         try (Scope scope = span.makeCurrent()) {
             Properties props = new Properties();
-            props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "application-kafka-bootstrap.kafka:9092");
+            props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS);
             props.put(ConsumerConfig.GROUP_ID_CONFIG, "price-action-group");
             props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-            props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+            props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
             props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+            props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, enableAutoCommit);
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+            props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+            props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, readCommitted ? "read_committed" : "read_uncommitted");
 
             return new KafkaConsumer<>(props);
         } finally {
             span.end();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a producer on the same cluster for the consumer's derived output
+     * topics, such as completed bars.
+     */
+    public KafkaProducer<String, byte[]> createProducer() {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        return new KafkaProducer<>(props);
+    }
+
+    /**
+     * Creates an idempotent, transactional producer for the derived output
+     * topics. The transactional id must be stable for an instance across
+     * restarts so that a restarted instance fences its predecessor.
+     */
+    public KafkaProducer<String, byte[]> createTransactionalProducer(String transactionalId) {
+        Properties props = new Properties();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);
+        logger.info("Creating transactional producer {}", transactionalId);
+        return new KafkaProducer<>(props);
+    }
+
+    public int getMaxPollRecords() {
+        return maxPollRecords;
+    }
+
+    public int getFetchMinBytes() {
+        return fetchMinBytes;
+    }
+
+    public int getFetchMaxWaitMs() {
+        return fetchMaxWaitMs;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.infrastructure;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.presentation.IndicatorSnapshotCache;
+import com.example.presentation.bar.Bar;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the {@link IndicatorSnapshotCache} as JSON over the JDK's built-in
+ * HTTP server:
+ * <ul>
+ *   <li>{@code GET /indicators}: the latest snapshot of every underlying,</li>
+ *   <li>{@code GET /indicators/{underlying}}: the latest snapshot of one underlying,</li>
+ *   <li>{@code GET /bars/{underlying}[?interval=1m]}: its recent bars, by interval or for one interval.</li>
+ * </ul>
+ * Requests run on their own executor and only read published snapshots, so a
+ * slow or busy client never holds up the consumer loop.
+ */
+public class QueryApiServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(QueryApiServer.class);
+    private static final String INDICATORS = "/indicators";
+    private static final String BARS = "/bars";
+
+    private final IndicatorSnapshotCache cache;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private QueryApiServer(IndicatorSnapshotCache cache, HttpServer server, ExecutorService executor) {
+        this.cache = cache;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /** Binds the port, 0 for any free one, and starts serving. */
+    public static QueryApiServer start(IndicatorSnapshotCache cache, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        ExecutorService executor = VirtualThreads.newTaskExecutor("query-api");
+        QueryApiServer queryApi = new QueryApiServer(cache, server, executor);
+        server.createContext(INDICATORS, queryApi::handleIndicators);
+        server.createContext(BARS, queryApi::handleBars);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Query API listening on port {}", queryApi.getPort());
+        return queryApi;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleIndicators(HttpExchange exchange) throws IOException {
+        if (!isGet(exchange) || !isWithin(exchange, INDICATORS)) {
+            return;
+        }
+        String underlying = pathParameter(exchange, INDICATORS);
+        if (underlying == null) {
+            respond(exchange, 200, cache.latest());
+            return;
+        }
+        IndicatorSnapshotCache.Snapshot snapshot = cache.latest(underlying);
+        if (snapshot == null) {
+            respond(exchange, 404, error("Unknown underlying: " + underlying));
+        } else {
+            respond(exchange, 200, snapshot);
+        }
+    }
+
+    private void handleBars(HttpExchange exchange) throws IOException {
+        if (!isGet(exchange) || !isWithin(exchange, BARS)) {
+            return;
+        }
+        String underlying = pathParameter(exchange, BARS);
+        if (underlying == null) {
+            respond(exchange, 404, error("Expected " + BARS + "/{underlying}"));
+            return;
+        }
+        if (!cache.underlyings().contains(underlying)) {
+            respond(exchange, 404, error("Unknown underlying: " + underlying));
+            return;
+        }
+        Map<String, List<Bar>> bars = cache.recentBars(underlying);
+        String interval = queryParameter(exchange, "interval");
+        if (interval == null) {
+            respond(exchange, 200, bars);
+        } else {
+            respond(exchange, 200, bars.getOrDefault(interval, Collections.emptyList()));
+        }
+    }
+
+    private boolean isGet(HttpExchange exchange) throws IOException {
+        if ("GET".equals(exchange.getRequestMethod())) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", "GET");
+        respond(exchange, 405, error("Only GET is supported"));
+        return false;
+    }
+
+    /**
+     * Contexts match by prefix, so {@code /indicatorsNVDA} reaches the
+     * {@code /indicators} handler; only the context itself and paths below it
+     * are served.
+     */
+    private boolean isWithin(HttpExchange exchange, String context) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.length() == context.length() || path.charAt(context.length()) == '/') {
+            return true;
+        }
+        respond(exchange, 404, error("Not found: " + path));
+        return false;
+    }
+
+    /** The single path segment after {@code context}, or null if there is none. */
+    private static String pathParameter(HttpExchange exchange, String context) {
+        String rest = exchange.getRequestURI().getPath().substring(context.length());
+        while (rest.startsWith("/")) {
+            rest = rest.substring(1);
+        }
+        while (rest.endsWith("/")) {
+            rest = rest.substring(0, rest.length() - 1);
+        }
+        return rest.isEmpty() ? null : rest;
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && name.equals(parameter.substring(0, equals))) {
+                return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> error(String message) {
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("error", message);
+        return error;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.infrastructure;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.presentation.AverageSink;
+import com.example.presentation.bar.BarSink;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The consumer's derived output topics written through one transactional
+ * producer. Averages, bars and the consumer offsets they were computed from are
+ * committed in the same transaction, so read-committed readers see all of them
+ * or none.
+ *
+ * <p>Not thread-safe: the transaction is driven from the polling thread, and
+ * bars must be published synchronously on it.
+ */
+public class TransactionalOutput implements AverageSink, AutoCloseable {
+    public static final String PRICE_ACTION_AVERAGES_TOPIC = "price-action-averages";
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionalOutput.class);
+    private final Producer<String, byte[]> producer;
+    private final String averagesTopic;
+    private final KafkaBarSink bars;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private boolean inTransaction;
+
+    /** Wraps the producer and registers its transactional id, fencing any previous instance. */
+    public TransactionalOutput(Producer<String, byte[]> producer, String averagesTopic, String barsTopic) {
+        this.producer = producer;
+        this.averagesTopic = averagesTopic;
+        this.bars = new KafkaBarSink(producer, barsTopic);
+        producer.initTransactions();
+    }
+
+    /** Publishes bars into the current transaction. */
+    public BarSink bars() {
+        return bars;
+    }
+
+    @Override
+    public void publish(String underlying, double rollingAverage, int ticks) {
+        ObjectNode average = objectMapper.createObjectNode()
+                .put("underlying", underlying)
+                .put("rollingAverage", rollingAverage)
+                .put("ticks", ticks);
+        try {
+            producer.send(new ProducerRecord<>(averagesTopic, underlying, objectMapper.writeValueAsBytes(average)));
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Failed to serialize average for " + underlying, e);
+        }
+    }
+
+    public boolean isInTransaction() {
+        return inTransaction;
+    }
+
+    public void beginTransaction() {
+        if (!inTransaction) {
+            producer.beginTransaction();
+            inTransaction = true;
+        }
+    }
+
+    /**
+     * Adds the consumed offsets to the open transaction and commits it. Fails if
+     * any send of the transaction failed, in which case the caller must abort.
+     */
+    public void commitTransaction(Map<TopicPartition, OffsetAndMetadata> offsets, ConsumerGroupMetadata groupMetadata) {
+        if (!inTransaction) {
+            return;
+        }
+        if (!offsets.isEmpty()) {
+            producer.sendOffsetsToTransaction(offsets, groupMetadata);
+        }
+        producer.commitTransaction();
+        inTransaction = false;
+    }
+
+    /** Aborts the open transaction, if any. Errors are logged, since the caller is already failing. */
+    public void abortTransaction() {
+        if (!inTransaction) {
+            return;
+        }
+        inTransaction = false;
+        try {
+            producer.abortTransaction();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to abort transaction", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
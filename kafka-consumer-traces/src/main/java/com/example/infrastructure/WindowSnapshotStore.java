@@ -0,0 +1,289 @@
+package com.example.infrastructure;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.presentation.PriceWindow;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.UnderlyingIndicators;
+
+/**
+ * Checkpoints the windows and indicator state of an {@link IndicatorEngine},
+ * together with the partition offsets they reflect, to memory-mapped files.
+ *
+ * <p>Two files are written alternately, so a crash mid-write always leaves the
+ * previous snapshot intact. Each file starts with a header holding a sequence
+ * number and the CRC32 of the payload; {@link #restore} picks the newest file
+ * whose CRC matches.
+ *
+ * <p>Payload layout: window size, indicator names, partition offsets, then per
+ * underlying its name, the partitions its ticks were read from, the window
+ * ticks oldest first (close, high, low, volume) and the extra state of each
+ * indicator.
+ */
+public class WindowSnapshotStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WindowSnapshotStore.class);
+    private static final int MAGIC = 0x50415753;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int TICK_SIZE = 3 * Double.BYTES + Integer.BYTES;
+
+    private final IndicatorEngine engine;
+    private final FileChannel[] channels = new FileChannel[2];
+    private final MappedByteBuffer[] buffers = new MappedByteBuffer[2];
+    private int newest = -1;
+    private long sequence;
+
+    public WindowSnapshotStore(Path directory, IndicatorEngine engine) throws IOException {
+        this.engine = engine;
+        Files.createDirectories(directory);
+        for (int slot = 0; slot < channels.length; slot++) {
+            channels[slot] = FileChannel.open(directory.resolve("window-state-" + slot + ".bin"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        // Find the newest snapshot up front, so writes supersede it even if it is never restored
+        for (int slot = 0; slot < channels.length; slot++) {
+            long slotSequence = validSequence(slot);
+            if (slotSequence > sequence) {
+                sequence = slotSequence;
+                newest = slot;
+            }
+        }
+    }
+
+    /**
+     * Loads the newest valid snapshot into the engine and returns the offsets it
+     * was taken at, or an empty map if there is none or it was written with a
+     * different window size or indicator set. Underlyings read from a partition
+     * the snapshot has no offset for are left out: that partition resumes from
+     * its committed offset, so their windows would continue across a gap.
+     */
+    public Map<TopicPartition, Long> restore() {
+        if (newest < 0) {
+            logger.info("No window snapshot found");
+            return Collections.emptyMap();
+        }
+
+        ByteBuffer payload = payload(newest);
+        int windowSize = payload.getInt();
+        List<String> names = new ArrayList<>();
+        for (int i = payload.getInt(); i > 0; i--) {
+            names.add(getString(payload));
+        }
+        if (windowSize != engine.getWindowSize() || !names.equals(engine.indicatorNames())) {
+            logger.warn("Ignoring window snapshot taken with window size {} and indicators {}", windowSize, names);
+            return Collections.emptyMap();
+        }
+
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        BitSet snapshotPartitions = new BitSet();
+        for (int i = payload.getInt(); i > 0; i--) {
+            String topic = getString(payload);
+            int partition = payload.getInt();
+            offsets.put(new TopicPartition(topic, partition), payload.getLong());
+            snapshotPartitions.set(partition);
+        }
+
+        int underlyings = payload.getInt();
+        int dropped = 0;
+        for (int u = 0; u < underlyings; u++) {
+            String underlying = getString(payload);
+            int[] partitions = new int[payload.getInt()];
+            boolean covered = true;
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = payload.getInt();
+                covered &= snapshotPartitions.get(partitions[i]);
+            }
+            if (!covered) {
+                skipUnderlying(payload, names.size());
+                dropped++;
+                continue;
+            }
+
+            UnderlyingIndicators indicators = engine.indicatorsFor(underlying);
+            for (int partition : partitions) {
+                indicators.addPartition(partition);
+            }
+            for (int ticks = payload.getInt(); ticks > 0; ticks--) {
+                indicators.update(payload.getDouble(), payload.getDouble(), payload.getDouble(), payload.getInt());
+            }
+            for (int i = 0; i < indicators.size(); i++) {
+                int stateSize = payload.getInt();
+                int end = payload.position() + stateSize;
+                if (stateSize > 0) {
+                    indicators.get(i).readState(payload);
+                }
+                payload.position(end);
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("Left out {} underlyings of window snapshot {} read from partitions it has no offsets for",
+                    dropped, sequence);
+        }
+        logger.info("Restored {} underlyings from window snapshot {} at offsets {}",
+                underlyings - dropped, sequence, offsets);
+        return offsets;
+    }
+
+    /**
+     * Writes the engine's current state as reflecting the given offsets. The
+     * caller must make sure no underlying is updated while this runs.
+     */
+    public void write(Map<TopicPartition, Long> offsets) throws IOException {
+        List<String> names = engine.indicatorNames();
+        List<byte[]> encodedNames = new ArrayList<>(names.size());
+        int size = 2 * Integer.BYTES;
+        for (String name : names) {
+            byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+            encodedNames.add(encoded);
+            size += Short.BYTES + encoded.length;
+        }
+        size += Integer.BYTES;
+        for (TopicPartition partition : offsets.keySet()) {
+            size += Short.BYTES + partition.topic().getBytes(StandardCharsets.UTF_8).length + Integer.BYTES + Long.BYTES;
+        }
+        size += Integer.BYTES;
+        List<UnderlyingIndicators> underlyings = new ArrayList<>(engine.all());
+        for (UnderlyingIndicators indicators : underlyings) {
+            size += Short.BYTES + indicators.getUnderlying().getBytes(StandardCharsets.UTF_8).length
+                    + Integer.BYTES + indicators.getPartitions().cardinality() * Integer.BYTES
+                    + Integer.BYTES + indicators.getWindow().size() * TICK_SIZE;
+            for (int i = 0; i < indicators.size(); i++) {
+                size += Integer.BYTES + indicators.get(i).stateSize();
+            }
+        }
+
+        long nextSequence = sequence + 1;
+        int slot = (int) (nextSequence % channels.length);
+        MappedByteBuffer buffer = mapped(slot, HEADER_SIZE + size);
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(HEADER_SIZE);
+
+        payload.putInt(engine.getWindowSize());
+        payload.putInt(encodedNames.size());
+        for (byte[] name : encodedNames) {
+            putBytes(payload, name);
+        }
+        payload.putInt(offsets.size());
+        for (Map.Entry<TopicPartition, Long> entry : offsets.entrySet()) {
+            putBytes(payload, entry.getKey().topic().getBytes(StandardCharsets.UTF_8));
+            payload.putInt(entry.getKey().partition());
+            payload.putLong(entry.getValue());
+        }
+        payload.putInt(underlyings.size());
+        for (UnderlyingIndicators indicators : underlyings) {
+            putBytes(payload, indicators.getUnderlying().getBytes(StandardCharsets.UTF_8));
+            BitSet partitions = indicators.getPartitions();
+            payload.putInt(partitions.cardinality());
+            for (int p = partitions.nextSetBit(0); p >= 0; p = partitions.nextSetBit(p + 1)) {
+                payload.putInt(p);
+            }
+            PriceWindow window = indicators.getWindow();
+            payload.putInt(window.size());
+            long first = window.count() - window.size();
+            for (int i = 0; i < window.size(); i++) {
+                long tick = first + i;
+                payload.putDouble(window.closeAt(i)).putDouble(window.highAt(tick))
+                        .putDouble(window.lowAt(tick)).putInt(window.volumeAt(tick));
+            }
+            for (int i = 0; i < indicators.size(); i++) {
+                payload.putInt(indicators.get(i).stateSize());
+                indicators.get(i).writeState(payload);
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer written = buffer.duplicate();
+        written.position(HEADER_SIZE).limit(HEADER_SIZE + size);
+        crc.update(written);
+        // The payload must be on disk before a header that vouches for it.
+        buffer.force();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, nextSequence);
+        buffer.putInt(16, size);
+        buffer.putInt(20, (int) crc.getValue());
+        buffer.force();
+        sequence = nextSequence;
+        logger.debug("Wrote window snapshot {} of {} bytes for {} underlyings", nextSequence, size, underlyings.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    private long validSequence(int slot) throws IOException {
+        if (channels[slot].size() < HEADER_SIZE) {
+            return -1;
+        }
+        MappedByteBuffer buffer = mapped(slot, channels[slot].size());
+        int size = buffer.getInt(16);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || size < 0 || size > buffer.capacity() - HEADER_SIZE) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer written = buffer.duplicate();
+        written.position(HEADER_SIZE).limit(HEADER_SIZE + size);
+        crc.update(written);
+        return (int) crc.getValue() == buffer.getInt(20) ? buffer.getLong(8) : -1;
+    }
+
+    private ByteBuffer payload(int slot) {
+        ByteBuffer payload = buffers[slot].duplicate();
+        payload.position(HEADER_SIZE).limit(HEADER_SIZE + buffers[slot].getInt(16));
+        return payload;
+    }
+
+    /** Maps at least {@code size} bytes of the slot's file, growing it with headroom when needed. */
+    private MappedByteBuffer mapped(int slot, long size) throws IOException {
+        MappedByteBuffer buffer = buffers[slot];
+        if (buffer == null || buffer.capacity() < size) {
+            long capacity = size > channels[slot].size() ? size + size / 4 : channels[slot].size();
+            buffer = channels[slot].map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffers[slot] = buffer;
+        }
+        return buffer;
+    }
+
+    /** Moves past the ticks and indicator state of an underlying that is not restored. */
+    private static void skipUnderlying(ByteBuffer payload, int indicators) {
+        int ticks = payload.getInt();
+        payload.position(payload.position() + ticks * TICK_SIZE);
+        for (int i = 0; i < indicators; i++) {
+            int stateSize = payload.getInt();
+            payload.position(payload.position() + stateSize);
+        }
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.presentation;
+
+/**
+ * Receives the latest rolling average of every underlying updated by a poll.
+ */
+public interface AverageSink {
+    void publish(String underlying, double rollingAverage, int ticks);
+
+    static AverageSink discarding() {
+        return (underlying, rollingAverage, ticks) -> { };
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.presentation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.presentation.bar.Bar;
+import com.example.presentation.bar.BarSink;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.UnderlyingIndicators;
+
+/**
+ * The latest indicator values and recent bars of every underlying, for readers
+ * outside the consumer loop such as the query API.
+ *
+ * <p>Writers never lock and readers never block them. Every publish builds a
+ * new immutable {@link Snapshot} or bar history and swaps it in with a single
+ * reference write, so a reader sees either the previous or the next state of an
+ * underlying, never a half-written one, and holds no reference into the live
+ * indicator windows. Indicator values are published by the thread processing
+ * the underlying, at most once per {@code publishIntervalMs}; a non-zero
+ * interval saves allocation on busy underlyings but can leave the last updates
+ * of an underlying that stops ticking unpublished. Bars, which may come from
+ * the bar aggregator's watermark as well, are swapped in with a compare-and-set.
+ */
+public class IndicatorSnapshotCache implements AverageSink {
+    private final IndicatorEngine engine;
+    private final List<String> indicatorNames;
+    private final long publishIntervalNanos;
+    private final int maxBarsPerInterval;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public IndicatorSnapshotCache(IndicatorEngine engine, long publishIntervalMs, int maxBarsPerInterval) {
+        if (publishIntervalMs < 0 || maxBarsPerInterval <= 0) {
+            throw new IllegalArgumentException("publishIntervalMs must not be negative and maxBarsPerInterval must be positive");
+        }
+        this.engine = engine;
+        this.indicatorNames = Collections.unmodifiableList(engine.indicatorNames());
+        this.publishIntervalNanos = TimeUnit.MILLISECONDS.toNanos(publishIntervalMs);
+        this.maxBarsPerInterval = maxBarsPerInterval;
+    }
+
+    /**
+     * Counts the ticks and, if the underlying's last snapshot is older than the
+     * publish interval, snapshots its indicators. Must be called by the thread
+     * that just updated the underlying.
+     */
+    @Override
+    public void publish(String underlying, double rollingAverage, int ticks) {
+        Slot slot = slotFor(underlying);
+        slot.ticks += ticks;
+        long now = System.nanoTime();
+        if (slot.latest != null && now - slot.publishedAt < publishIntervalNanos) {
+            return;
+        }
+        UnderlyingIndicators indicators = engine.indicatorsFor(underlying);
+        double[] values = new double[indicators.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = indicators.get(i).isReady() ? indicators.get(i).value() : Double.NaN;
+        }
+        slot.publishedAt = now;
+        slot.latest = new Snapshot(underlying, rollingAverage, slot.ticks, System.currentTimeMillis(),
+                indicatorNames, values);
+    }
+
+    /** A sink that records every bar here before handing it to {@code delegate}. */
+    public BarSink recording(BarSink delegate) {
+        return bar -> {
+            record(bar);
+            delegate.publish(bar);
+        };
+    }
+
+    private void record(Bar bar) {
+        AtomicReference<Map<String, List<Bar>>> history = slotFor(bar.getUnderlying()).bars;
+        Map<String, List<Bar>> current;
+        Map<String, List<Bar>> next;
+        do {
+            current = history.get();
+            List<Bar> previous = current.getOrDefault(bar.getInterval(), Collections.emptyList());
+            int keep = Math.min(previous.size(), maxBarsPerInterval - 1);
+            List<Bar> bars = new ArrayList<>(keep + 1);
+            bars.addAll(previous.subList(previous.size() - keep, previous.size()));
+            bars.add(bar);
+            next = new HashMap<>(current);
+            next.put(bar.getInterval(), Collections.unmodifiableList(bars));
+        } while (!history.compareAndSet(current, Collections.unmodifiableMap(next)));
+    }
+
+    /** The latest snapshot of every underlying that has published one. */
+    public List<Snapshot> latest() {
+        List<Snapshot> snapshots = new ArrayList<>(slots.size());
+        for (Slot slot : slots.values()) {
+            Snapshot snapshot = slot.latest;
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /** The latest snapshot of the underlying, or null if it has not published one. */
+    public Snapshot latest(String underlying) {
+        Slot slot = slots.get(underlying);
+        return slot == null ? null : slot.latest;
+    }
+
+    /** The most recent completed bars of the underlying by interval label, oldest first. */
+    public Map<String, List<Bar>> recentBars(String underlying) {
+        Slot slot = slots.get(underlying);
+        return slot == null ? Collections.emptyMap() : slot.bars.get();
+    }
+
+    public Collection<String> underlyings() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    private Slot slotFor(String underlying) {
+        Slot slot = slots.get(underlying);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(underlying, u -> new Slot());
+        }
+        return slot;
+    }
+
+    /** Immutable indicator values of one underlying at one point in time. */
+    public static final class Snapshot {
+        private final String underlying;
+        private final double rollingAverage;
+        private final long ticks;
+        private final long publishedAtMillis;
+        private final List<String> names;
+        private final double[] values;
+
+        private Snapshot(String underlying, double rollingAverage, long ticks, long publishedAtMillis,
+                         List<String> names, double[] values) {
+            this.underlying = underlying;
+            this.rollingAverage = rollingAverage;
+            this.ticks = ticks;
+            this.publishedAtMillis = publishedAtMillis;
+            this.names = names;
+            this.values = values;
+        }
+
+        public String getUnderlying() { return underlying; }
+        public double getRollingAverage() { return rollingAverage; }
+        public long getTicks() { return ticks; }
+        public long getPublishedAtMillis() { return publishedAtMillis; }
+
+        /** Indicator values by name, in configuration order; null for indicators that are not ready yet. */
+        public Map<String, Double> getIndicators() {
+            Map<String, Double> indicators = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                indicators.put(names.get(i), Double.isNaN(values[i]) ? null : values[i]);
+            }
+            return indicators;
+        }
+
+        @Override
+        public String toString() {
+            return underlying + "{rollingAverage=" + rollingAverage + ", ticks=" + ticks
+                    + ", indicators=" + Arrays.toString(values) + '}';
+        }
+    }
+
+    /** Per-underlying state. {@code ticks} and {@code publishedAt} belong to the publishing thread. */
+    private static final class Slot {
+        private final AtomicReference<Map<String, List<Bar>>> bars = new AtomicReference<>(Collections.emptyMap());
+        private volatile Snapshot latest;
+        private long ticks;
+        private long publishedAt;
+    }
+}
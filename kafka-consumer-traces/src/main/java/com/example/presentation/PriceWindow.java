@@ -0,0 +1,169 @@
+package com.example.presentation;
+
+/**
+ * Fixed-capacity ring buffers of the latest ticks for a single underlying, kept
+ * as parallel primitive columns. A running sum of closes is kept alongside, so
+ * updates and the simple average are O(1) and never allocate.
+ *
+ * <p>The window is the state shared by all indicators of an underlying: after
+ * each {@link #add} they can read the newest tick, the tick it pushed out of
+ * the window and the close before it, without keeping copies of their own.
+ */
+public class PriceWindow {
+    /**
+     * Ticks between recomputations of the running sum from scratch, which bound
+     * its floating-point drift. Indicators with running sums of their own resync
+     * on the same ticks.
+     */
+    public static final long RESYNC_INTERVAL = 1L << 16;
+
+    private final double[] closes;
+    private final double[] highs;
+    private final double[] lows;
+    private final int[] volumes;
+    private int head;
+    private int size;
+    private double sum;
+    private long count;
+
+    private boolean evicted;
+    private double evictedClose;
+    private double evictedHigh;
+    private double evictedLow;
+    private int evictedVolume;
+    private double previousClose;
+
+    public PriceWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.closes = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.volumes = new int[capacity];
+    }
+
+    public void add(double close, double high, double low, int volume) {
+        previousClose = count > 0 ? latestClose() : Double.NaN;
+        evicted = size == closes.length;
+        if (evicted) {
+            evictedClose = closes[head];
+            evictedHigh = highs[head];
+            evictedLow = lows[head];
+            evictedVolume = volumes[head];
+            sum -= evictedClose;
+        } else {
+            size++;
+        }
+        closes[head] = close;
+        highs[head] = high;
+        lows[head] = low;
+        volumes[head] = volume;
+        sum += close;
+        head = head + 1 == closes.length ? 0 : head + 1;
+
+        if (++count % RESYNC_INTERVAL == 0) {
+            resync();
+        }
+    }
+
+    public boolean isFull() {
+        return size == closes.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return closes.length;
+    }
+
+    /** Whether the last {@link #add} recomputed the running sum; see {@link #RESYNC_INTERVAL}. */
+    public boolean hasResynced() {
+        return count % RESYNC_INTERVAL == 0;
+    }
+
+    /** Total number of ticks ever added; the newest tick has sequence {@code count() - 1}. */
+    public long count() {
+        return count;
+    }
+
+    public double average() {
+        return size == 0 ? 0.0 : sum / size;
+    }
+
+    public double latestClose() {
+        return closes[latestIndex()];
+    }
+
+    public double latestHigh() {
+        return highs[latestIndex()];
+    }
+
+    public double latestLow() {
+        return lows[latestIndex()];
+    }
+
+    public int latestVolume() {
+        return volumes[latestIndex()];
+    }
+
+    /** Close of the tick before the newest one, or NaN if there was none. */
+    public double previousClose() {
+        return previousClose;
+    }
+
+    /** Whether the last {@link #add} pushed a tick out of the window. */
+    public boolean hasEvicted() {
+        return evicted;
+    }
+
+    public double evictedClose() {
+        return evictedClose;
+    }
+
+    public double evictedHigh() {
+        return evictedHigh;
+    }
+
+    public double evictedLow() {
+        return evictedLow;
+    }
+
+    public int evictedVolume() {
+        return evictedVolume;
+    }
+
+    /** High of the tick with the given sequence, which must still be inside the window. */
+    public double highAt(long sequence) {
+        return highs[(int) (sequence % closes.length)];
+    }
+
+    /** Low of the tick with the given sequence, which must still be inside the window. */
+    public double lowAt(long sequence) {
+        return lows[(int) (sequence % closes.length)];
+    }
+
+    /** Volume of the tick with the given sequence, which must still be inside the window. */
+    public int volumeAt(long sequence) {
+        return volumes[(int) (sequence % closes.length)];
+    }
+
+    /** Close of the i-th oldest tick in the window, {@code 0 <= i < size()}. */
+    public double closeAt(int i) {
+        return closes[(int) ((count - size + i) % closes.length)];
+    }
+
+    private int latestIndex() {
+        return head == 0 ? closes.length - 1 : head - 1;
+    }
+
+    private void resync() {
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += closes[i];
+        }
+        sum = total;
+    }
+}
@@ -1,47 +1,103 @@
 package com.example.presentation;
 
-import java.util.List;
+import java.util.Collections;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.example.domain.PriceAction;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.UnderlyingIndicators;
 
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 
 public class RollingAverageCalculator {
     private static final Logger logger = LoggerFactory.getLogger(RollingAverageCalculator.class);
+    private static final AttributeKey<Long> WINDOW_SIZE = AttributeKey.longKey("windowSize");
+    private static final AttributeKey<Double> ROLLING_AVERAGE = AttributeKey.doubleKey("rollingAverage");
     private final Tracer tracer;
     private final int windowSize;
+    private final boolean computeSpans;
+    private final IndicatorEngine indicatorEngine;
 
     public RollingAverageCalculator(Tracer tracer, int windowSize) {
+        this(tracer, new IndicatorEngine(windowSize, Collections.emptyList()), false);
+    }
+
+    public RollingAverageCalculator(Tracer tracer, IndicatorEngine indicatorEngine, boolean computeSpans) {
         this.tracer = tracer;
-        this.windowSize = windowSize;
+        this.windowSize = indicatorEngine.getWindowSize();
+        this.computeSpans = computeSpans;
+        this.indicatorEngine = indicatorEngine;
+    }
+
+    /**
+     * Adds the price action to its underlying's window, updates the other
+     * indicators of that underlying, and returns the average close of the
+     * window, or 0.0 until the window has filled up.
+     *
+     * <p>The result is recorded as an event on the current span. A dedicated
+     * child span is only created when compute spans are enabled and the current
+     * trace is sampled, since a parent-based sampler would drop it otherwise.
+     */
+    public double calculateRollingAverage(PriceAction priceAction) {
+        return calculateRollingAverage(priceAction, UnderlyingIndicators.NO_PARTITION);
     }
 
-    public double calculateRollingAverage(List<PriceAction> priceActions) {
+    /** Same as {@link #calculateRollingAverage(PriceAction)} for a price action read from the given partition. */
+    public double calculateRollingAverage(PriceAction priceAction, int partition) {
+        Span current = Span.current();
+        if (!computeSpans || !current.getSpanContext().isSampled()) {
+            double rollingAverage = update(priceAction, partition);
+            if (current.isRecording()) {
+                current.addEvent("rolling-average", Attributes.of(
+                        WINDOW_SIZE, (long) windowSize, ROLLING_AVERAGE, rollingAverage));
+            }
+            return rollingAverage;
+        }
+
         Span span = tracer.spanBuilder("calculate-rolling-average")
                 .setAttribute("windowSize", windowSize)
+                .setAttribute("underlying", priceAction.getUnderlying())
                 .startSpan();
         try (Scope scope = span.makeCurrent()) {
-            if (priceActions.size() < windowSize) {
-                return 0.0;
-            }
-
-            List<PriceAction> window = priceActions.subList(
-                    priceActions.size() - windowSize, 
-                    priceActions.size()
-            );
-            
-            double sum = window.stream()
-                    .mapToDouble(PriceAction::getClose)
-                    .sum();
-            
-            return sum / windowSize;
+            return update(priceAction, partition);
         } finally {
             span.end();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Same as {@link #calculateRollingAverage(PriceAction)} without a span, for
+     * callers that trace a whole batch of updates themselves.
+     */
+    public double update(PriceAction priceAction) {
+        return update(priceAction, UnderlyingIndicators.NO_PARTITION);
+    }
+
+    /** Same as {@link #update(PriceAction)} for a price action read from the given partition. */
+    public double update(PriceAction priceAction, int partition) {
+        PriceWindow window = indicatorEngine.update(priceAction, partition).getWindow();
+
+        if (!window.isFull()) {
+            return 0.0;
+        }
+        return window.average();
+    }
+
+    public UnderlyingIndicators indicatorsFor(String underlying) {
+        return indicatorEngine.indicatorsFor(underlying);
+    }
+
+    public IndicatorEngine getIndicatorEngine() {
+        return indicatorEngine;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.presentation;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+
+/**
+ * Restores the send order of underlyings whose records were spread over several
+ * partitions, using the producer's per-underlying sequence numbers. Each source
+ * and underlying is a stream: a tick that is next in its stream is applied at
+ * once, together with any held ticks it makes contiguous, while a tick that
+ * arrives early is copied and held.
+ *
+ * <p>Holding is bounded. Once a stream holds {@code maxHeldPerStream} ticks, or
+ * its oldest held tick has waited {@code maxHoldMs} by the time {@link #expire}
+ * runs, the gap is skipped and the held ticks are applied. A skipped gap is
+ * usually a sub-partition assigned to another consumer. Ticks behind their
+ * stream, such as redeliveries or the rest of a skipped gap, are applied at once
+ * and counted as late.
+ *
+ * <p>A stream that starts at sequence 0 is applied at once. Any other stream,
+ * e.g. one picked up after a restart or rebalance, is held like a gap until the
+ * same limits, and then starts at the lowest sequence it holds, so earlier
+ * ticks polled from its other partitions shortly after are not taken as late.
+ * Streams that have held nothing and seen no tick for {@code idleMs} are
+ * forgotten when {@link #expire} runs, so sources that are gone do not pile up.
+ *
+ * <p>Not thread-safe: one buffer belongs to one consumer loop.
+ */
+public class SequenceReorderBuffer {
+    public static final long DEFAULT_IDLE_MS = 60_000;
+
+    private final boolean enabled;
+    private final int maxHeldPerStream;
+    private final long maxHoldNanos;
+    private final long idleNanos;
+    private final Map<Long, Map<String, Stream>> streamsBySource = new HashMap<>();
+    private long lastSource;
+    private Map<String, Stream> lastStreams;
+    private long now = System.nanoTime();
+    private long lastEviction = now;
+    private int held;
+    private long late;
+    private long skipped;
+
+    private SequenceReorderBuffer(boolean enabled, int maxHeldPerStream, long maxHoldMs, long idleMs) {
+        this.enabled = enabled;
+        this.maxHeldPerStream = maxHeldPerStream;
+        this.maxHoldNanos = TimeUnit.MILLISECONDS.toNanos(maxHoldMs);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMs);
+    }
+
+    public static SequenceReorderBuffer create(int maxHeldPerStream, long maxHoldMs, long idleMs) {
+        if (maxHeldPerStream <= 0 || maxHoldMs < 0 || idleMs < 0) {
+            throw new IllegalArgumentException("maxHeldPerStream must be positive and maxHoldMs and idleMs not negative");
+        }
+        return new SequenceReorderBuffer(true, maxHeldPerStream, maxHoldMs, idleMs);
+    }
+
+    /** A buffer that is never offered anything; callers apply every tick directly. */
+    public static SequenceReorderBuffer disabled() {
+        return new SequenceReorderBuffer(false, 1, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Applies the tick, and any held ticks that follow it, if it is next in its
+     * stream, or holds a copy of it otherwise. The tick itself may be a reused
+     * view; only copies are kept.
+     */
+    public void offer(long source, long sequence, PriceAction tick, Consumer<PriceAction> apply) {
+        Stream stream = streamFor(source, tick.getUnderlying());
+        stream.lastSeen = now;
+        if (sequence == stream.next || (stream.next < 0 && sequence == 0)) {
+            apply.accept(tick);
+            stream.next = sequence + 1;
+            release(stream, apply);
+        } else if (stream.next >= 0 && sequence < stream.next) {
+            late++;
+            apply.accept(tick);
+        } else if (stream.pending.putIfAbsent(sequence, copy(tick)) == null) {
+            if (stream.pending.size() == 1) {
+                stream.heldSince = System.nanoTime();
+            }
+            held++;
+            if (stream.pending.size() > maxHeldPerStream) {
+                skipGap(stream, apply);
+            }
+        }
+    }
+
+    /**
+     * Skips the gaps of streams whose oldest held tick has waited longer than the
+     * hold limit, and forgets idle streams.
+     */
+    public void expire(Consumer<PriceAction> apply) {
+        now = System.nanoTime();
+        if (held > 0) {
+            for (Map<String, Stream> streams : streamsBySource.values()) {
+                for (Stream stream : streams.values()) {
+                    if (!stream.pending.isEmpty() && now - stream.heldSince >= maxHoldNanos) {
+                        skipGap(stream, apply);
+                    }
+                }
+            }
+        }
+        if (now - lastEviction >= idleNanos) {
+            evictIdle();
+        }
+    }
+
+    /** Applies every held tick in sequence order, skipping all gaps, e.g. before offsets are committed. */
+    public void drain(Consumer<PriceAction> apply) {
+        if (held == 0) {
+            return;
+        }
+        for (Map<String, Stream> streams : streamsBySource.values()) {
+            for (Stream stream : streams.values()) {
+                while (!stream.pending.isEmpty()) {
+                    skipGap(stream, apply);
+                }
+            }
+        }
+    }
+
+    /** Ticks currently held back. */
+    public int held() {
+        return held;
+    }
+
+    /** Ticks applied behind their stream since creation. */
+    public long late() {
+        return late;
+    }
+
+    /** Sequence numbers given up on when skipping gaps since creation. */
+    public long skipped() {
+        return skipped;
+    }
+
+    /** Streams currently tracked. */
+    public int streams() {
+        int streams = 0;
+        for (Map<String, Stream> bySource : streamsBySource.values()) {
+            streams += bySource.size();
+        }
+        return streams;
+    }
+
+    private Stream streamFor(long source, String underlying) {
+        if (lastStreams == null || source != lastSource) {
+            lastStreams = streamsBySource.computeIfAbsent(source, s -> new HashMap<>());
+            lastSource = source;
+        }
+        Stream stream = lastStreams.get(underlying);
+        if (stream == null) {
+            stream = new Stream();
+            lastStreams.put(underlying, stream);
+        }
+        return stream;
+    }
+
+    /** Moves the stream on to its lowest held tick, or starts it there. */
+    private void skipGap(Stream stream, Consumer<PriceAction> apply) {
+        long first = stream.pending.firstKey();
+        if (stream.next >= 0) {
+            skipped += first - stream.next;
+        }
+        stream.next = first;
+        release(stream, apply);
+    }
+
+    private void evictIdle() {
+        lastEviction = now;
+        Iterator<Map<String, Stream>> sources = streamsBySource.values().iterator();
+        while (sources.hasNext()) {
+            Map<String, Stream> streams = sources.next();
+            streams.values().removeIf(stream -> stream.pending.isEmpty() && now - stream.lastSeen >= idleNanos);
+            if (streams.isEmpty()) {
+                sources.remove();
+            }
+        }
+        lastStreams = null;
+    }
+
+    private void release(Stream stream, Consumer<PriceAction> apply) {
+        Map.Entry<Long, PriceAction> first;
+        while ((first = stream.pending.firstEntry()) != null && first.getKey() == stream.next) {
+            stream.pending.pollFirstEntry();
+            held--;
+            stream.next++;
+            apply.accept(first.getValue());
+        }
+        if (!stream.pending.isEmpty()) {
+            stream.heldSince = System.nanoTime();
+        }
+    }
+
+    private static PriceAction copy(PriceAction tick) {
+        return tick instanceof PriceActionBatch.View ? ((PriceActionBatch.View) tick).toPriceAction() : tick;
+    }
+
+    /** The ticks of one underlying from one source. */
+    private static final class Stream {
+        private final TreeMap<Long, PriceAction> pending = new TreeMap<>();
+        private long next = -1;
+        private long heldSince;
+        private long lastSeen;
+    }
+}
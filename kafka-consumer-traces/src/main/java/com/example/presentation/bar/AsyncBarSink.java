@@ -0,0 +1,69 @@
+package com.example.presentation.bar;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Hands bars to a possibly blocking sink on another executor, typically one
+ * virtual thread per bar, so slow sink I/O never stalls the consumer. Bars of
+ * the same underlying are still published in order, and at most
+ * {@code maxInFlight} bars are outstanding before {@link #publish} blocks.
+ * Each bar is published in the OpenTelemetry {@link Context} of its caller.
+ */
+public class AsyncBarSink implements BarSink, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBarSink.class);
+    private final BarSink delegate;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public AsyncBarSink(BarSink delegate, ExecutorService executor, int maxInFlight) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void publish(Bar bar) {
+        inFlight.acquireUninterruptibly();
+        tails.compute(bar.getUnderlying(), (underlying, tail) -> {
+            Runnable task = Context.current().wrap(() -> {
+                try {
+                    delegate.publish(bar);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to publish bar {}", bar, e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            return tail == null || tail.isDone()
+                    ? CompletableFuture.runAsync(task, executor)
+                    : tail.thenRunAsync(task, executor);
+        });
+    }
+
+    /** Waits for outstanding bars to be published, then closes the delegate if it is closeable. */
+    @Override
+    public void close() throws Exception {
+        try {
+            CompletableFuture.allOf(tails.values().toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            logger.warn("Gave up waiting for in-flight bars", e);
+        }
+        executor.shutdownNow();
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.presentation.bar;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed OHLCV bar of one underlying over {@code [start, end)}.
+ */
+public class Bar {
+    private final String underlying;
+    private final String interval;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final long volume;
+    private final int tickCount;
+
+    public Bar(String underlying, String interval, LocalDateTime start, LocalDateTime end,
+               double open, double high, double low, double close, long volume, int tickCount) {
+        this.underlying = underlying;
+        this.interval = interval;
+        this.start = start;
+        this.end = end;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.tickCount = tickCount;
+    }
+
+    public String getUnderlying() { return underlying; }
+    public String getInterval() { return interval; }
+    public LocalDateTime getStart() { return start; }
+    public LocalDateTime getEnd() { return end; }
+    public double getOpen() { return open; }
+    public double getHigh() { return high; }
+    public double getLow() { return low; }
+    public double getClose() { return close; }
+    public long getVolume() { return volume; }
+    public int getTickCount() { return tickCount; }
+
+    @Override
+    public String toString() {
+        return underlying + "[" + interval + " " + start + "] O=" + open + " H=" + high + " L=" + low
+                + " C=" + close + " V=" + volume + " n=" + tickCount;
+    }
+}
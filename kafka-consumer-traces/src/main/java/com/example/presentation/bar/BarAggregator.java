@@ -0,0 +1,255 @@
+package com.example.presentation.bar;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+
+/**
+ * Folds ticks into OHLCV bars per underlying and interval, bucketed on the
+ * tick's {@code getDate()} taken as UTC.
+ *
+ * <p>Completion is driven by an event-time watermark per underlying: the latest
+ * tick time seen for that underlying minus the allowed lateness. A bar is
+ * published once its end is at or behind the watermark, so ticks arriving out
+ * of order within the lateness still land in their bar. Ticks for a bar that has
+ * already been published are counted as late and dropped. Since every
+ * underlying advances on its own ticks, a partition or lane that runs ahead,
+ * e.g. while catching up, cannot close the bars of underlyings read elsewhere.
+ *
+ * <p>An underlying that receives no ticks for {@code idleTimeoutMs} of
+ * processing time is idle, and {@link #advanceWatermark()}, which callers invoke
+ * periodically, closes its bars against the most advanced watermark of all
+ * underlyings instead, so quiet underlyings still publish.
+ *
+ * <p>Each underlying's series is guarded by its own lock, so the aggregator can
+ * be shared by worker threads that split underlyings between them.
+ */
+public class BarAggregator {
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 10_000;
+
+    private final List<BarInterval> intervals;
+    private final long allowedLatenessMillis;
+    private final long idleTimeoutNanos;
+    private final BarSink sink;
+    private final Map<String, UnderlyingSeries> series = new ConcurrentHashMap<>();
+    private final AtomicLong maxEventTime = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong lateTicks = new AtomicLong();
+
+    public BarAggregator(List<BarInterval> intervals, long allowedLatenessMillis, BarSink sink) {
+        this(intervals, allowedLatenessMillis, DEFAULT_IDLE_TIMEOUT_MS, sink);
+    }
+
+    public BarAggregator(List<BarInterval> intervals, long allowedLatenessMillis, long idleTimeoutMs, BarSink sink) {
+        this.intervals = Collections.unmodifiableList(new ArrayList<>(intervals));
+        this.allowedLatenessMillis = allowedLatenessMillis;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.sink = sink;
+    }
+
+    /** An aggregator without intervals, which ignores every tick. */
+    public static BarAggregator disabled() {
+        return new BarAggregator(Collections.emptyList(), 0, bar -> { });
+    }
+
+    public boolean isEnabled() {
+        return !intervals.isEmpty();
+    }
+
+    public void onTick(PriceAction tick) {
+        if (intervals.isEmpty()) {
+            return;
+        }
+        long eventTime = eventTimeOf(tick);
+        updateMax(maxEventTime, eventTime);
+        UnderlyingSeries underlying = seriesFor(tick.getUnderlying());
+        underlying.lastTickNanos = System.nanoTime();
+        long watermark = updateMax(underlying.maxEventTime, eventTime) - allowedLatenessMillis;
+
+        for (Series bars : underlying.series) {
+            synchronized (bars) {
+                if (!bars.add(eventTime, tick, watermark)) {
+                    lateTicks.incrementAndGet();
+                }
+                bars.closeUpTo(watermark, sink);
+            }
+        }
+    }
+
+    /** Epoch millis of the tick; batch views supply it directly instead of through a {@link LocalDateTime}. */
+    private static long eventTimeOf(PriceAction tick) {
+        if (tick instanceof PriceActionBatch.View) {
+            return EpochNanos.toEpochMillis(((PriceActionBatch.View) tick).getEpochNanos());
+        }
+        LocalDateTime date = tick.getDate();
+        return date.toEpochSecond(ZoneOffset.UTC) * 1000L + date.getNano() / 1_000_000;
+    }
+
+    /** Publishes the open bars of idle underlyings that the most advanced watermark has passed. */
+    public void advanceWatermark() {
+        long watermark = watermark();
+        if (watermark == Long.MIN_VALUE) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (UnderlyingSeries underlying : series.values()) {
+            if (now - underlying.lastTickNanos < idleTimeoutNanos) {
+                continue;
+            }
+            for (Series bars : underlying.series) {
+                synchronized (bars) {
+                    bars.closeUpTo(watermark, sink);
+                }
+            }
+        }
+    }
+
+    /** Publishes every open bar regardless of the watermark, e.g. on shutdown or at the end of a replay. */
+    public void flush() {
+        for (UnderlyingSeries underlying : series.values()) {
+            for (Series bars : underlying.series) {
+                synchronized (bars) {
+                    bars.closeUpTo(Long.MAX_VALUE, sink);
+                }
+            }
+        }
+    }
+
+    /** The watermark of the underlying with the latest ticks, which idle underlyings are closed against. */
+    public long watermark() {
+        long max = maxEventTime.get();
+        return max == Long.MIN_VALUE ? Long.MIN_VALUE : max - allowedLatenessMillis;
+    }
+
+    public long getLateTicks() {
+        return lateTicks.get();
+    }
+
+    /** Raises {@code max} to {@code eventTime} if that is later, returning the resulting maximum. */
+    private static long updateMax(AtomicLong max, long eventTime) {
+        long current = max.get();
+        while (eventTime > current && !max.compareAndSet(current, eventTime)) {
+            current = max.get();
+        }
+        return Math.max(current, eventTime);
+    }
+
+    private UnderlyingSeries seriesFor(String underlying) {
+        UnderlyingSeries underlyingSeries = series.get(underlying);
+        if (underlyingSeries == null) {
+            UnderlyingSeries created = new UnderlyingSeries(underlying, intervals);
+            underlyingSeries = series.putIfAbsent(underlying, created);
+            if (underlyingSeries == null) {
+                underlyingSeries = created;
+            }
+        }
+        return underlyingSeries;
+    }
+
+    /** The series of one underlying for every interval, with that underlying's own event-time progress. */
+    private static final class UnderlyingSeries {
+        private final Series[] series;
+        private final AtomicLong maxEventTime = new AtomicLong(Long.MIN_VALUE);
+        private volatile long lastTickNanos = System.nanoTime();
+
+        private UnderlyingSeries(String underlying, List<BarInterval> intervals) {
+            series = new Series[intervals.size()];
+            for (int i = 0; i < series.length; i++) {
+                series[i] = new Series(underlying, intervals.get(i));
+            }
+        }
+    }
+
+    /** Open bars of one underlying and interval, ordered by start time. */
+    private static final class Series {
+        private final String underlying;
+        private final BarInterval interval;
+        private final List<OpenBar> open = new ArrayList<>(4);
+
+        private Series(String underlying, BarInterval interval) {
+            this.underlying = underlying;
+            this.interval = interval;
+        }
+
+        /** Adds the tick to its bar; returns false if that bar has already been published. */
+        private boolean add(long eventTime, PriceAction tick, long watermark) {
+            long length = interval.getMillis();
+            long start = Math.floorDiv(eventTime, length) * length;
+            if (start + length <= watermark) {
+                return false;
+            }
+
+            int index = open.size();
+            while (index > 0 && open.get(index - 1).start > start) {
+                index--;
+            }
+            OpenBar bar;
+            if (index > 0 && open.get(index - 1).start == start) {
+                bar = open.get(index - 1);
+            } else {
+                bar = new OpenBar(start);
+                open.add(index, bar);
+            }
+            bar.add(eventTime, tick);
+            return true;
+        }
+
+        private void closeUpTo(long watermark, BarSink sink) {
+            long length = interval.getMillis();
+            while (!open.isEmpty() && open.get(0).start + length <= watermark) {
+                OpenBar bar = open.remove(0);
+                sink.publish(bar.toBar(underlying, interval));
+            }
+        }
+    }
+
+    private static final class OpenBar {
+        private final long start;
+        private long firstTime = Long.MAX_VALUE;
+        private long lastTime = Long.MIN_VALUE;
+        private double open;
+        private double high = Double.NEGATIVE_INFINITY;
+        private double low = Double.POSITIVE_INFINITY;
+        private double close;
+        private long volume;
+        private int tickCount;
+
+        private OpenBar(long start) {
+            this.start = start;
+        }
+
+        private void add(long eventTime, PriceAction tick) {
+            if (eventTime < firstTime) {
+                firstTime = eventTime;
+                open = tick.getOpen();
+            }
+            if (eventTime >= lastTime) {
+                lastTime = eventTime;
+                close = tick.getClose();
+            }
+            high = Math.max(high, tick.getHigh());
+            low = Math.min(low, tick.getLow());
+            volume += tick.getVolume();
+            tickCount++;
+        }
+
+        private Bar toBar(String underlying, BarInterval interval) {
+            return new Bar(underlying, interval.getLabel(), toDateTime(start), toDateTime(start + interval.getMillis()),
+                    open, high, low, close, volume, tickCount);
+        }
+
+        private static LocalDateTime toDateTime(long epochMillis) {
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                    (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.presentation.bar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bar length such as {@code 1s}, {@code 1m}, {@code 5m} or {@code 1h}.
+ */
+public class BarInterval {
+    private final String label;
+    private final long millis;
+
+    public BarInterval(String label, long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Bar interval must be positive: " + label);
+        }
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public static BarInterval parse(String label) {
+        String value = label.trim();
+        if (value.endsWith("ms")) {
+            return new BarInterval(value, Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return new BarInterval(value, amount * 1000L);
+            case 'm':
+                return new BarInterval(value, amount * 60_000L);
+            case 'h':
+                return new BarInterval(value, amount * 3_600_000L);
+            case 'd':
+                return new BarInterval(value, amount * 86_400_000L);
+            default:
+                throw new IllegalArgumentException("Unknown bar interval: " + label);
+        }
+    }
+
+    /** Parses a comma-separated list such as {@code 1s,1m,5m}; blank means none. */
+    public static List<BarInterval> parseList(String labels) {
+        List<BarInterval> intervals = new ArrayList<>();
+        for (String label : labels.split(",")) {
+            if (!label.trim().isEmpty()) {
+                intervals.add(parse(label));
+            }
+        }
+        return intervals;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.presentation.bar;
+
+/**
+ * Receives bars once they are complete.
+ */
+public interface BarSink {
+    void publish(Bar bar);
+}
@@ -0,0 +1,13 @@
+package com.example.presentation.bar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LoggingBarSink implements BarSink {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingBarSink.class);
+
+    @Override
+    public void publish(Bar bar) {
+        logger.info("Completed bar {}", bar);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.presentation.indicator;
+
+import java.nio.ByteBuffer;
+
+import com.example.presentation.PriceWindow;
+
+/**
+ * Wilder's average true range: the first value is the mean true range of the
+ * first {@code period} ticks, after which it is smoothed as
+ * {@code (atr * (period - 1) + tr) / period}.
+ */
+public class AverageTrueRange implements Indicator {
+    private final int period;
+    private long count;
+    private double value;
+
+    public AverageTrueRange(int period) {
+        this.period = period;
+    }
+
+    @Override
+    public String name() {
+        return "atr";
+    }
+
+    @Override
+    public void update(PriceWindow window) {
+        double high = window.latestHigh();
+        double low = window.latestLow();
+        double previousClose = window.previousClose();
+        double trueRange = high - low;
+        if (!Double.isNaN(previousClose)) {
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+        }
+
+        count++;
+        if (count < period) {
+            value += trueRange;
+        } else if (count == period) {
+            value = (value + trueRange) / period;
+        } else {
+            value = (value * (period - 1) + trueRange) / period;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double value() {
+        return isReady() ? value : 0.0;
+    }
+
+    @Override
+    public int stateSize() {
+        return Long.BYTES + Double.BYTES;
+    }
+
+    @Override
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(count).putDouble(value);
+    }
+
+    @Override
+    public void readState(ByteBuffer buffer) {
+        count = buffer.getLong();
+        value = buffer.getDouble();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.presentation.indicator;
+
+import java.nio.ByteBuffer;
+
+import com.example.presentation.PriceWindow;
+
+/**
+ * Exponential moving average of the close with smoothing {@code 2 / (period + 1)},
+ * seeded with the simple average of the first {@code period} closes.
+ */
+public class ExponentialMovingAverage implements Indicator {
+    private final int period;
+    private final double alpha;
+    private long count;
+    private double value;
+
+    public ExponentialMovingAverage(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public String name() {
+        return "ema";
+    }
+
+    @Override
+    public void update(PriceWindow window) {
+        double close = window.latestClose();
+        count++;
+        if (count < period) {
+            value += close;
+        } else if (count == period) {
+            value = (value + close) / period;
+        } else {
+            value += alpha * (close - value);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public double value() {
+        return isReady() ? value : 0.0;
+    }
+
+    @Override
+    public int stateSize() {
+        return Long.BYTES + Double.BYTES;
+    }
+
+    @Override
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(count).putDouble(value);
+    }
+
+    @Override
+    public void readState(ByteBuffer buffer) {
+        count = buffer.getLong();
+        value = buffer.getDouble();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.presentation.indicator;
+
+import java.nio.ByteBuffer;
+
+import com.example.presentation.PriceWindow;
+
+/**
+ * An incrementally maintained indicator for one underlying. Implementations
+ * update in O(1) (amortized for the rolling extremes) from the shared
+ * {@link PriceWindow} and never rescan the history.
+ */
+public interface Indicator {
+    String name();
+
+    /** Called after the window has absorbed a new tick. */
+    void update(PriceWindow window);
+
+    boolean isReady();
+
+    double value();
+
+    /**
+     * Size in bytes of the state this indicator carries beyond the window, for
+     * snapshots. Indicators derived from the window alone have none, because
+     * replaying the window rebuilds them.
+     */
+    default int stateSize() {
+        return 0;
+    }
+
+    default void writeState(ByteBuffer buffer) {
+    }
+
+    /** Overwrites the state rebuilt by replaying the window with the saved one. */
+    default void readState(ByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.presentation.indicator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.domain.PriceAction;
+
+/**
+ * Keeps the windows and indicators of every underlying. Memory is bounded by
+ * the number of distinct underlyings times the window size, independent of run
+ * time. Lookups are safe from several threads; each underlying must only be
+ * updated by one thread at a time.
+ */
+public class IndicatorEngine {
+    private final Map<String, UnderlyingIndicators> underlyings = new ConcurrentHashMap<>();
+    private final int windowSize;
+    private final List<IndicatorFactory> factories;
+
+    public IndicatorEngine(int windowSize, List<IndicatorFactory> factories) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.factories = Collections.unmodifiableList(new ArrayList<>(factories));
+    }
+
+    public UnderlyingIndicators update(PriceAction priceAction) {
+        return update(priceAction, UnderlyingIndicators.NO_PARTITION);
+    }
+
+    /** Applies a price action read from the given partition of the price action topic. */
+    public UnderlyingIndicators update(PriceAction priceAction, int partition) {
+        UnderlyingIndicators indicators = indicatorsFor(priceAction.getUnderlying());
+        indicators.addPartition(partition);
+        indicators.update(priceAction);
+        return indicators;
+    }
+
+    public UnderlyingIndicators indicatorsFor(String underlying) {
+        UnderlyingIndicators indicators = underlyings.get(underlying);
+        if (indicators == null) {
+            UnderlyingIndicators created = new UnderlyingIndicators(underlying, windowSize, factories);
+            indicators = underlyings.putIfAbsent(underlying, created);
+            if (indicators == null) {
+                indicators = created;
+            }
+        }
+        return indicators;
+    }
+
+    public Collection<UnderlyingIndicators> all() {
+        return Collections.unmodifiableCollection(underlyings.values());
+    }
+
+    /** Names of the configured indicators, in the order every underlying holds them. */
+    public List<String> indicatorNames() {
+        List<String> names = new ArrayList<>(factories.size());
+        for (IndicatorFactory factory : factories) {
+            names.add(factory.create(windowSize).name());
+        }
+        return names;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+}
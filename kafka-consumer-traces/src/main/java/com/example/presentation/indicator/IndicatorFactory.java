@@ -0,0 +1,9 @@
+package com.example.presentation.indicator;
+
+/**
+ * Creates a fresh indicator for an underlying whose window holds
+ * {@code windowSize} ticks.
+ */
+public interface IndicatorFactory {
+    Indicator create(int windowSize);
+}
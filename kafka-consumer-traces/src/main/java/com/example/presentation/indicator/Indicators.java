@@ -0,0 +1,47 @@
+package com.example.presentation.indicator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks up indicator factories by name: {@code sma}, {@code ema}, {@code vwap},
+ * {@code min}, {@code max}, {@code stddev} and {@code atr}.
+ */
+public final class Indicators {
+    public static final String ALL = "sma,ema,vwap,min,max,stddev,atr";
+
+    private Indicators() {
+    }
+
+    public static IndicatorFactory byName(String name) {
+        switch (name) {
+            case "sma":
+                return windowSize -> new SimpleMovingAverage();
+            case "ema":
+                return ExponentialMovingAverage::new;
+            case "vwap":
+                return windowSize -> new VolumeWeightedAveragePrice();
+            case "min":
+                return RollingExtreme::minimumLow;
+            case "max":
+                return RollingExtreme::maximumHigh;
+            case "stddev":
+                return windowSize -> new RollingStandardDeviation();
+            case "atr":
+                return AverageTrueRange::new;
+            default:
+                throw new IllegalArgumentException("Unknown indicator: " + name);
+        }
+    }
+
+    /** Parses a comma-separated list of indicator names. */
+    public static List<IndicatorFactory> parse(String names) {
+        List<IndicatorFactory> factories = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.trim().isEmpty()) {
+                factories.add(byName(name.trim()));
+            }
+        }
+        return factories;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.presentation.indicator;
+
+import com.example.presentation.PriceWindow;
+
+/**
+ * Rolling maximum of the high or minimum of the low over the window, kept in a
+ * monotonic deque of tick sequence numbers. Each tick is pushed and popped at
+ * most once, so updates are amortized O(1).
+ */
+public class RollingExtreme implements Indicator {
+    private final boolean maximum;
+    private final long[] deque;
+    private int first;
+    private int length;
+    private double value;
+    private boolean full;
+
+    private RollingExtreme(int windowSize, boolean maximum) {
+        this.maximum = maximum;
+        this.deque = new long[windowSize];
+    }
+
+    public static RollingExtreme maximumHigh(int windowSize) {
+        return new RollingExtreme(windowSize, true);
+    }
+
+    public static RollingExtreme minimumLow(int windowSize) {
+        return new RollingExtreme(windowSize, false);
+    }
+
+    @Override
+    public String name() {
+        return maximum ? "max" : "min";
+    }
+
+    @Override
+    public void update(PriceWindow window) {
+        long sequence = window.count() - 1;
+        double price = valueAt(window, sequence);
+
+        long oldestInWindow = window.count() - window.size();
+        if (length > 0 && deque[first] < oldestInWindow) {
+            first = next(first);
+            length--;
+        }
+        while (length > 0 && !dominates(valueAt(window, deque[last()]), price)) {
+            length--;
+        }
+        deque[(first + length) % deque.length] = sequence;
+        length++;
+
+        value = valueAt(window, deque[first]);
+        full = window.isFull();
+    }
+
+    @Override
+    public boolean isReady() {
+        return full;
+    }
+
+    @Override
+    public double value() {
+        return full ? value : 0.0;
+    }
+
+    private double valueAt(PriceWindow window, long sequence) {
+        return maximum ? window.highAt(sequence) : window.lowAt(sequence);
+    }
+
+    /** Whether an older entry stays in front of a newer price. */
+    private boolean dominates(double older, double newer) {
+        return maximum ? older > newer : older < newer;
+    }
+
+    private int last() {
+        return (first + length - 1) % deque.length;
+    }
+
+    private int next(int index) {
+        return index + 1 == deque.length ? 0 : index + 1;
+    }
+}
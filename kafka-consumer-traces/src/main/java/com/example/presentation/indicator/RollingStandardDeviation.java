@@ -0,0 +1,73 @@
+package com.example.presentation.indicator;
+
+import com.example.presentation.PriceWindow;
+
+/**
+ * Sample standard deviation of the close over the window, maintained with
+ * Welford's algorithm extended to remove the tick leaving the window. The
+ * removals let the sums drift, so they are recomputed from the window in two
+ * passes whenever the window resyncs its own.
+ */
+public class RollingStandardDeviation implements Indicator {
+    private long n;
+    private double mean;
+    private double m2;
+    private boolean full;
+
+    @Override
+    public String name() {
+        return "stddev";
+    }
+
+    @Override
+    public void update(PriceWindow window) {
+        full = window.isFull();
+        if (window.hasResynced()) {
+            resync(window);
+            return;
+        }
+        if (window.hasEvicted()) {
+            double removed = window.evictedClose();
+            n--;
+            if (n == 0) {
+                mean = 0.0;
+                m2 = 0.0;
+            } else {
+                double delta = removed - mean;
+                mean -= delta / n;
+                m2 -= delta * (removed - mean);
+            }
+        }
+        double added = window.latestClose();
+        n++;
+        double delta = added - mean;
+        mean += delta / n;
+        m2 += delta * (added - mean);
+    }
+
+    @Override
+    public boolean isReady() {
+        return full && n > 1;
+    }
+
+    @Override
+    public double value() {
+        // Rounding can leave m2 just below zero when all closes are equal
+        return isReady() ? Math.sqrt(Math.max(m2, 0.0) / (n - 1)) : 0.0;
+    }
+
+    private void resync(PriceWindow window) {
+        n = window.size();
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += window.closeAt(i);
+        }
+        mean = sum / n;
+        double squares = 0.0;
+        for (int i = 0; i < n; i++) {
+            double delta = window.closeAt(i) - mean;
+            squares += delta * delta;
+        }
+        m2 = squares;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.presentation.indicator;
+
+import com.example.presentation.PriceWindow;
+
+/** Average close over the window, read from the window's running sum. */
+public class SimpleMovingAverage implements Indicator {
+    private boolean ready;
+    private double value;
+
+    @Override
+    public String name() {
+        return "sma";
+    }
+
+    @Override
+    public void update(PriceWindow window) {
+        ready = window.isFull();
+        value = window.average();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public double value() {
+        return value;
+    }
+}
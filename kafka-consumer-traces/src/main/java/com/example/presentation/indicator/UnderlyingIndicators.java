@@ -0,0 +1,88 @@
+package com.example.presentation.indicator;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.example.domain.PriceAction;
+import com.example.presentation.PriceWindow;
+
+/**
+ * The window and indicators of one underlying. Each tick is written to the
+ * window once, and every indicator then updates from it. The partitions of the
+ * price action topic its ticks were read from are kept alongside, so a restored
+ * window is only resumed together with all of them.
+ */
+public class UnderlyingIndicators {
+    /** Partition of ticks that were not read from Kafka. */
+    public static final int NO_PARTITION = -1;
+
+    private final String underlying;
+    private final PriceWindow window;
+    private final Indicator[] indicators;
+    private final BitSet partitions = new BitSet();
+
+    public UnderlyingIndicators(String underlying, int windowSize, List<IndicatorFactory> factories) {
+        this.underlying = underlying;
+        this.window = new PriceWindow(windowSize);
+        this.indicators = new Indicator[factories.size()];
+        for (int i = 0; i < indicators.length; i++) {
+            indicators[i] = factories.get(i).create(windowSize);
+        }
+    }
+
+    public void update(PriceAction priceAction) {
+        update(priceAction.getClose(), priceAction.getHigh(), priceAction.getLow(), priceAction.getVolume());
+    }
+
+    public void update(double close, double high, double low, int volume) {
+        window.add(close, high, low, volume);
+        for (Indicator indicator : indicators) {
+            indicator.update(window);
+        }
+    }
+
+    /** Notes that ticks of this underlying are read from the partition; {@link #NO_PARTITION} is ignored. */
+    public void addPartition(int partition) {
+        if (partition >= 0) {
+            partitions.set(partition);
+        }
+    }
+
+    /** The partitions ticks of this underlying were read from, as a copy. */
+    public BitSet getPartitions() {
+        return (BitSet) partitions.clone();
+    }
+
+    public String getUnderlying() {
+        return underlying;
+    }
+
+    public PriceWindow getWindow() {
+        return window;
+    }
+
+    public int size() {
+        return indicators.length;
+    }
+
+    public Indicator get(int index) {
+        return indicators[index];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(underlying).append('{');
+        for (int i = 0; i < indicators.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(indicators[i].name()).append('=');
+            if (indicators[i].isReady()) {
+                builder.append(indicators[i].value());
+            } else {
+                builder.append("n/a");
+            }
+        }
+        return builder.append('}').toString();
+    }
+}
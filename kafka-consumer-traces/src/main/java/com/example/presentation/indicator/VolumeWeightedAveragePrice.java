@@ -0,0 +1,64 @@
+package com.example.presentation.indicator;
+
+import com.example.presentation.PriceWindow;
+
+/**
+ * Rolling VWAP over the window, weighting each tick's typical price
+ * {@code (high + low + close) / 3} by its volume. The running sums are
+ * recomputed from the window whenever the window resyncs its own.
+ */
+public class VolumeWeightedAveragePrice implements Indicator {
+    private double priceVolume;
+    private long volume;
+    private boolean full;
+
+    @Override
+    public String name() {
+        return "vwap";
+    }
+
+    @Override
+    public void update(PriceWindow window) {
+        full = window.isFull();
+        if (window.hasResynced()) {
+            resync(window);
+            return;
+        }
+        if (window.hasEvicted()) {
+            priceVolume -= typicalPrice(window.evictedHigh(), window.evictedLow(), window.evictedClose())
+                    * window.evictedVolume();
+            volume -= window.evictedVolume();
+        }
+        priceVolume += typicalPrice(window.latestHigh(), window.latestLow(), window.latestClose())
+                * window.latestVolume();
+        volume += window.latestVolume();
+    }
+
+    @Override
+    public boolean isReady() {
+        return full && volume > 0;
+    }
+
+    @Override
+    public double value() {
+        return isReady() ? priceVolume / volume : 0.0;
+    }
+
+    private void resync(PriceWindow window) {
+        double totalPriceVolume = 0.0;
+        long totalVolume = 0;
+        long first = window.count() - window.size();
+        for (int i = 0; i < window.size(); i++) {
+            long tick = first + i;
+            totalPriceVolume += typicalPrice(window.highAt(tick), window.lowAt(tick), window.closeAt(i))
+                    * window.volumeAt(tick);
+            totalVolume += window.volumeAt(tick);
+        }
+        priceVolume = totalPriceVolume;
+        volume = totalVolume;
+    }
+
+    private static double typicalPrice(double high, double low, double close) {
+        return (high + low + close) / 3.0;
+    }
+}
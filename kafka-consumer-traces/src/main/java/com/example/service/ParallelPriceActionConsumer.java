@@ -0,0 +1,340 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.SequenceHeaderCodec;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Polls on one thread and fans records out to a fixed set of single-threaded
+ * worker lanes. Records are routed by key, so every underlying is always
+ * processed by the same lane, in offset order within each partition.
+ * Routing by partition instead is only safe while every underlying lives on a
+ * single partition; records carrying {@link SequenceHeaderCodec} sequence
+ * numbers come from a producer that may spread an underlying over several, so
+ * they are always routed by key.
+ *
+ * <p>Offsets are committed manually, and only up to the last poll whose records
+ * have all been processed. A partition whose work is piling up in the lanes is
+ * paused until they catch up.
+ */
+public class ParallelPriceActionConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelPriceActionConsumer.class);
+    private static final long REVOKE_DRAIN_TIMEOUT_MS = 10_000;
+
+    private final KafkaConsumerConfig kafkaConfig;
+    private final PriceActionService priceActionService;
+    private final Tracer tracer;
+    private final ExecutorService[] lanes;
+    private final boolean routeByKey;
+    private final int maxPendingPolls;
+    private final Map<TopicPartition, PartitionProgress> progress = new HashMap<>();
+    private final Set<TopicPartition> paused = new HashSet<>();
+    private boolean sequencedWarned;
+
+    public ParallelPriceActionConsumer(KafkaConsumerConfig kafkaConfig,
+                                       PriceActionService priceActionService,
+                                       Tracer tracer,
+                                       int workers,
+                                       boolean routeByKey,
+                                       int maxPendingPolls) {
+        if (workers <= 0 || maxPendingPolls <= 0) {
+            throw new IllegalArgumentException("workers and maxPendingPolls must be positive");
+        }
+        this.kafkaConfig = kafkaConfig;
+        this.priceActionService = priceActionService;
+        this.tracer = tracer;
+        this.routeByKey = routeByKey;
+        this.maxPendingPolls = maxPendingPolls;
+        this.lanes = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            int lane = i;
+            lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "price-action-worker-" + lane);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void startConsuming() {
+        Span span = tracer.spanBuilder("start-consuming-price-actions-in-parallel")
+                .setAttribute("workers", lanes.length)
+                .setAttribute("routeByKey", routeByKey)
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            try (KafkaConsumer<String, byte[]> consumer = kafkaConfig.createConsumer(false)) {
+                consumer.subscribe(Collections.singletonList(KafkaConsumerConfig.PRICE_ACTION_TOPIC),
+                        new DrainingRebalanceListener(consumer));
+
+                while (true) {
+                    ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                    for (TopicPartition partition : records.partitions()) {
+                        dispatch(partition, records.records(partition));
+                    }
+                    commitCompleted(consumer, progress.keySet(), false);
+                    updatePausedPartitions(consumer);
+                    priceActionService.getMetrics().updateLag(consumer);
+                    priceActionService.getBarAggregator().advanceWatermark();
+                    checkpointIfDue(consumer);
+                }
+            } catch (Exception e) {
+                logger.error("Error in parallel consumer loop", e);
+                span.recordException(e);
+                throw e;
+            } finally {
+                for (ExecutorService lane : lanes) {
+                    lane.shutdownNow();
+                }
+            }
+        } finally {
+            span.end();
+        }
+    }
+
+    private void dispatch(TopicPartition partition, List<ConsumerRecord<String, byte[]>> records) {
+        long nextOffset = records.get(records.size() - 1).offset() + 1;
+        PartitionProgress partitionProgress = progress.computeIfAbsent(partition, tp -> new PartitionProgress());
+
+        if (!routeByKey && !carriesSequences(records)) {
+            PendingPoll pending = new PendingPoll(nextOffset, 1);
+            partitionProgress.pending.add(pending);
+            lanes[laneFor(partition)].execute(() -> process(records, pending));
+            return;
+        }
+
+        List<List<ConsumerRecord<String, byte[]>>> chunks = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            chunks.add(null);
+        }
+        int usedLanes = 0;
+        for (ConsumerRecord<String, byte[]> record : records) {
+            int lane = record.key() != null ? laneFor(record.key()) : laneFor(partition);
+            List<ConsumerRecord<String, byte[]>> chunk = chunks.get(lane);
+            if (chunk == null) {
+                chunk = new ArrayList<>();
+                chunks.set(lane, chunk);
+                usedLanes++;
+            }
+            chunk.add(record);
+        }
+
+        PendingPoll pending = new PendingPoll(nextOffset, usedLanes);
+        partitionProgress.pending.add(pending);
+        for (int lane = 0; lane < lanes.length; lane++) {
+            List<ConsumerRecord<String, byte[]>> chunk = chunks.get(lane);
+            if (chunk != null) {
+                lanes[lane].execute(() -> process(chunk, pending));
+            }
+        }
+    }
+
+    /** Whether any of the records is sequenced, warning once that partition routing is overridden. */
+    private boolean carriesSequences(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (SequenceHeaderCodec.find(record.headers()) != null) {
+                if (!sequencedWarned) {
+                    logger.warn("Records carry {} headers, so underlyings may span partitions; routing them by key",
+                            SequenceHeaderCodec.SEQUENCE_HEADER);
+                    sequencedWarned = true;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void process(List<ConsumerRecord<String, byte[]>> records, PendingPoll pending) {
+        try {
+            for (ConsumerRecord<String, byte[]> record : records) {
+                priceActionService.processRecord(record);
+            }
+        } finally {
+            pending.remainingChunks.decrementAndGet();
+        }
+    }
+
+    private int laneFor(Object routingKey) {
+        return Math.floorMod(routingKey.hashCode(), lanes.length);
+    }
+
+    private void commitCompleted(KafkaConsumer<String, byte[]> consumer,
+                                 Collection<TopicPartition> partitions,
+                                 boolean sync) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionProgress partitionProgress = progress.get(partition);
+            if (partitionProgress == null) {
+                continue;
+            }
+            long committable = -1;
+            while (!partitionProgress.pending.isEmpty() && partitionProgress.pending.peek().isDone()) {
+                committable = partitionProgress.pending.poll().nextOffset;
+            }
+            if (committable >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(committable));
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        if (sync) {
+            consumer.commitSync(offsets);
+        } else {
+            consumer.commitAsync(offsets, (committed, exception) -> {
+                if (exception != null) {
+                    logger.warn("Failed to commit offsets {}", committed, exception);
+                }
+            });
+        }
+    }
+
+    /**
+     * Snapshots the windows once every lane has caught up, since the snapshot
+     * must match the consumer's positions exactly.
+     */
+    private void checkpointIfDue(KafkaConsumer<String, byte[]> consumer) {
+        WindowCheckpointer checkpointer = priceActionService.getCheckpointer();
+        if (!checkpointer.isDue()) {
+            return;
+        }
+        if (!awaitDrained(progress.keySet(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REVOKE_DRAIN_TIMEOUT_MS))) {
+            logger.warn("Skipping window checkpoint, workers did not catch up in time");
+            return;
+        }
+        commitCompleted(consumer, progress.keySet(), true);
+        checkpointer.checkpoint(consumer);
+    }
+
+    private boolean awaitDrained(Collection<TopicPartition> partitions, long deadline) {
+        for (TopicPartition partition : partitions) {
+            PartitionProgress partitionProgress = progress.get(partition);
+            while (partitionProgress != null && !partitionProgress.isDrained()) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void updatePausedPartitions(KafkaConsumer<String, byte[]> consumer) {
+        List<TopicPartition> toPause = new ArrayList<>();
+        List<TopicPartition> toResume = new ArrayList<>();
+        for (Map.Entry<TopicPartition, PartitionProgress> entry : progress.entrySet()) {
+            int pending = entry.getValue().pending.size();
+            TopicPartition partition = entry.getKey();
+            if (pending >= maxPendingPolls && paused.add(partition)) {
+                toPause.add(partition);
+            } else if (pending <= maxPendingPolls / 2 && paused.remove(partition)) {
+                toResume.add(partition);
+            }
+        }
+        if (!toPause.isEmpty()) {
+            logger.debug("Pausing lagging partitions {}", toPause);
+            consumer.pause(toPause);
+        }
+        if (!toResume.isEmpty()) {
+            logger.debug("Resuming partitions {}", toResume);
+            consumer.resume(toResume);
+        }
+    }
+
+    /** Finishes in-flight work for revoked partitions and commits it before they move elsewhere. */
+    private final class DrainingRebalanceListener implements ConsumerRebalanceListener {
+        private final KafkaConsumer<String, byte[]> consumer;
+
+        private DrainingRebalanceListener(KafkaConsumer<String, byte[]> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            awaitDrained(partitions, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REVOKE_DRAIN_TIMEOUT_MS));
+            try {
+                commitCompleted(consumer, partitions, true);
+            } catch (Exception e) {
+                logger.warn("Failed to commit offsets for revoked partitions {}", partitions, e);
+            }
+            forget(partitions);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            priceActionService.getCheckpointer().seekRestored(consumer, partitions);
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            forget(partitions);
+        }
+
+        private void forget(Collection<TopicPartition> partitions) {
+            for (TopicPartition partition : partitions) {
+                progress.remove(partition);
+                paused.remove(partition);
+            }
+        }
+    }
+
+    /** Polls dispatched for one partition, oldest first. Only touched by the polling thread. */
+    private static final class PartitionProgress {
+        private final ArrayDeque<PendingPoll> pending = new ArrayDeque<>();
+
+        private boolean isDrained() {
+            for (PendingPoll poll : pending) {
+                if (!poll.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** One partition's share of a poll, done once every lane it was split across has finished. */
+    private static final class PendingPoll {
+        private final long nextOffset;
+        private final AtomicInteger remainingChunks;
+
+        private PendingPoll(long nextOffset, int chunks) {
+            this.nextOffset = nextOffset;
+            this.remainingChunks = new AtomicInteger(chunks);
+        }
+
+        private boolean isDone() {
+            return remainingChunks.get() == 0;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.presentation.RollingAverageCalculator;
+import com.example.presentation.bar.BarAggregator;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Recomputes indicators and bars over a historical time range instead of
+ * following the topic live. The range's boundaries are looked up per partition
+ * with {@code offsetsForTimes}; reader threads then fetch and decode the
+ * partitions in parallel with {@code assign}/{@code seek}, outside the consumer
+ * group, so a replay never moves the group's committed offsets.
+ *
+ * <p>Decoded ticks are merged on a single thread in (event time, partition,
+ * offset) order and applied to the same {@link RollingAverageCalculator} and
+ * {@link BarAggregator} as live processing. The order is deterministic for a
+ * given range, and each partition is always applied in offset order, so every
+ * underlying sees its ticks in the order they were produced even if it spans
+ * several partitions. Each partition's reader pauses the partition while its
+ * merge queue is full, so memory stays bounded.
+ *
+ * <p>Boundaries are offsets: a partition is replayed from the first record at
+ * or after {@code from} up to, excluding, the first record at or after
+ * {@code to}, so records with out-of-order timestamps inside those offsets
+ * are included.
+ */
+public class PriceActionReplay {
+    private static final Logger logger = LoggerFactory.getLogger(PriceActionReplay.class);
+    private static final ReplayedTick END = new ReplayedTick(null, -1, -1, Long.MAX_VALUE);
+
+    private final Supplier<? extends Consumer<String, byte[]>> consumers;
+    private final RollingAverageCalculator rollingAverageCalculator;
+    private final BarAggregator barAggregator;
+    private final WindowCheckpointer checkpointer;
+    private final Deserializer<PriceAction> deserializer;
+    private final Tracer tracer;
+    private final int readers;
+    private final int queueCapacity;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * @param deserializer shared by all reader threads, so it must be thread-safe
+     * @param readers      reader threads, each with its own consumer
+     * @param queueCapacity decoded ticks buffered per partition ahead of the merge
+     */
+    public PriceActionReplay(KafkaConsumerConfig kafkaConfig,
+                             RollingAverageCalculator rollingAverageCalculator,
+                             BarAggregator barAggregator,
+                             WindowCheckpointer checkpointer,
+                             Deserializer<PriceAction> deserializer,
+                             Tracer tracer,
+                             int readers,
+                             int queueCapacity) {
+        this(() -> kafkaConfig.createConsumer(false), rollingAverageCalculator, barAggregator, checkpointer,
+                deserializer, tracer, readers, queueCapacity);
+    }
+
+    /** Replays through consumers from {@code consumers}, e.g. mocks; each call must return a new consumer. */
+    PriceActionReplay(Supplier<? extends Consumer<String, byte[]>> consumers,
+                      RollingAverageCalculator rollingAverageCalculator,
+                      BarAggregator barAggregator,
+                      WindowCheckpointer checkpointer,
+                      Deserializer<PriceAction> deserializer,
+                      Tracer tracer,
+                      int readers,
+                      int queueCapacity) {
+        if (readers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("readers and queueCapacity must be positive");
+        }
+        this.consumers = consumers;
+        this.rollingAverageCalculator = rollingAverageCalculator;
+        this.barAggregator = barAggregator;
+        this.checkpointer = checkpointer;
+        this.deserializer = deserializer;
+        this.tracer = tracer;
+        this.readers = readers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Parses a replay boundary: an ISO-8601 instant ({@code 2024-01-01T00:00:00Z}),
+     * a local date-time taken as UTC ({@code 2024-01-01T00:00}) or epoch millis.
+     */
+    public static long parseTimestamp(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException notMillis) {
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException notInstant) {
+                return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC).toEpochMilli();
+            }
+        }
+    }
+
+    /**
+     * Replays every partition of the price-action topic between the two epoch
+     * millisecond timestamps and returns the number of ticks applied. Open bars
+     * are flushed at the end. With window snapshots enabled, a snapshot is
+     * written at the replay's end offsets so that live consumption can resume
+     * exactly where the replay stopped, unless the engine already held state
+     * when the replay started, which the snapshot would then mix in.
+     */
+    public long replay(long fromMillis, long toMillis) throws InterruptedException {
+        Span span = tracer.spanBuilder("replay-price-actions")
+                .setAttribute("from", Instant.ofEpochMilli(fromMillis).toString())
+                .setAttribute("to", Instant.ofEpochMilli(toMillis).toString())
+                .setAttribute("readers", readers)
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            boolean fresh = rollingAverageCalculator.getIndicatorEngine().all().isEmpty();
+            Map<TopicPartition, long[]> allRanges = findRanges(fromMillis, toMillis);
+            Map<TopicPartition, long[]> ranges = new HashMap<>();
+            long planned = 0;
+            for (Map.Entry<TopicPartition, long[]> range : allRanges.entrySet()) {
+                if (range.getValue()[0] < range.getValue()[1]) {
+                    ranges.put(range.getKey(), range.getValue());
+                    planned += range.getValue()[1] - range.getValue()[0];
+                    logger.info("Replaying {} from offset {} to {}", range.getKey(), range.getValue()[0], range.getValue()[1]);
+                }
+            }
+            span.setAttribute("partitions", ranges.size());
+            span.setAttribute("plannedRecords", planned);
+
+            long start = System.nanoTime();
+            long applied = readAndMerge(ranges);
+            barAggregator.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            logger.info("Replayed {} price actions from {} partitions in {} s ({} per second)",
+                    applied, ranges.size(), String.format("%.1f", seconds), String.format("%.0f", applied / seconds));
+            span.setAttribute("appliedRecords", applied);
+
+            // Empty partitions too, so live consumption resumes them at the replay's end rather than before it
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            allRanges.forEach((partition, range) -> endOffsets.put(partition, range[1]));
+            if (fresh) {
+                checkpointer.snapshot(endOffsets);
+            } else if (checkpointer.isEnabled()) {
+                logger.warn("Not snapshotting the replay: the windows held state from before it");
+            }
+            return applied;
+        } catch (RuntimeException | InterruptedException e) {
+            logger.error("Replay failed", e);
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /** Start (inclusive) and end (exclusive) offset of every partition; empty ranges start at their end. */
+    private Map<TopicPartition, long[]> findRanges(long fromMillis, long toMillis) {
+        try (Consumer<String, byte[]> consumer = consumers.get()) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : consumer.partitionsFor(KafkaConsumerConfig.PRICE_ACTION_TOPIC)) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            partitions.sort(Comparator.comparingInt(TopicPartition::partition));
+
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, OffsetAndTimestamp> starts = consumer.offsetsForTimes(timestamps(partitions, fromMillis));
+            Map<TopicPartition, OffsetAndTimestamp> ends = consumer.offsetsForTimes(timestamps(partitions, toMillis));
+
+            Map<TopicPartition, long[]> ranges = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long end = ends.get(partition) != null ? ends.get(partition).offset() : endOffsets.get(partition);
+                long begin = starts.get(partition) != null ? Math.min(starts.get(partition).offset(), end) : end;
+                ranges.put(partition, new long[] {begin, end});
+            }
+            return ranges;
+        }
+    }
+
+    private static Map<TopicPartition, Long> timestamps(List<TopicPartition> partitions, long timestamp) {
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            timestamps.put(partition, timestamp);
+        }
+        return timestamps;
+    }
+
+    private long readAndMerge(Map<TopicPartition, long[]> ranges) throws InterruptedException {
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        Map<TopicPartition, BlockingQueue<ReplayedTick>> queues = new HashMap<>();
+        List<List<TopicPartition>> assignments = new ArrayList<>();
+        int readerCount = Math.min(readers, ranges.size());
+        for (int i = 0; i < readerCount; i++) {
+            assignments.add(new ArrayList<>());
+        }
+        int next = 0;
+        for (TopicPartition partition : ranges.keySet()) {
+            queues.put(partition, new ArrayBlockingQueue<>(queueCapacity));
+            assignments.get(next++ % readerCount).add(partition);
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(readerCount, runnable -> {
+            Thread thread = new Thread(runnable, "price-action-replay-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (List<TopicPartition> assignment : assignments) {
+                executor.execute(new PartitionReader(assignment, ranges, queues));
+            }
+            return merge(queues);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Applies the heads of all partition queues in (event time, partition, offset) order. */
+    private long merge(Map<TopicPartition, BlockingQueue<ReplayedTick>> queues) throws InterruptedException {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator
+                .comparingLong((Cursor cursor) -> cursor.head.epochNanos)
+                .thenComparingInt(cursor -> cursor.head.partition)
+                .thenComparingLong(cursor -> cursor.head.offset));
+        for (BlockingQueue<ReplayedTick> queue : queues.values()) {
+            Cursor cursor = new Cursor(queue);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+
+        long applied = 0;
+        while (!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            rollingAverageCalculator.update(cursor.head.priceAction, cursor.head.partition);
+            barAggregator.onTick(cursor.head.priceAction);
+            applied++;
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return applied;
+    }
+
+    /** Fetches and decodes a set of partitions with its own consumer, outside the consumer group. */
+    private final class PartitionReader implements Runnable {
+        private final List<TopicPartition> partitions;
+        private final Map<TopicPartition, long[]> ranges;
+        private final Map<TopicPartition, BlockingQueue<ReplayedTick>> queues;
+        private final Map<TopicPartition, ArrayDeque<ReplayedTick>> overflow = new HashMap<>();
+        private final Set<TopicPartition> reading = new HashSet<>();
+
+        private PartitionReader(List<TopicPartition> partitions, Map<TopicPartition, long[]> ranges,
+                                Map<TopicPartition, BlockingQueue<ReplayedTick>> queues) {
+            this.partitions = partitions;
+            this.ranges = ranges;
+            this.queues = queues;
+        }
+
+        @Override
+        public void run() {
+            try (Consumer<String, byte[]> consumer = consumers.get()) {
+                consumer.assign(partitions);
+                for (TopicPartition partition : partitions) {
+                    consumer.seek(partition, ranges.get(partition)[0]);
+                    overflow.put(partition, new ArrayDeque<>());
+                    reading.add(partition);
+                }
+
+                while (!reading.isEmpty() || hasOverflow()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    drainOverflow(consumer);
+                    if (reading.isEmpty()) {
+                        Thread.sleep(1);
+                        continue;
+                    }
+                    ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                    for (TopicPartition partition : records.partitions()) {
+                        if (reading.contains(partition)) {
+                            read(partition, records.records(partition));
+                        }
+                    }
+                    markFinished(consumer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Replay reader for {} failed", partitions, e);
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        private void read(TopicPartition partition, List<ConsumerRecord<String, byte[]>> records) {
+            long end = ranges.get(partition)[1];
+            ArrayDeque<ReplayedTick> pending = overflow.get(partition);
+            for (ConsumerRecord<String, byte[]> record : records) {
+                if (record.offset() >= end) {
+                    break;
+                }
+                try {
+                    PriceAction priceAction = deserializer.deserialize(record.topic(), record.headers(), record.value());
+                    pending.add(new ReplayedTick(priceAction, partition.partition(), record.offset(),
+                            EpochNanos.of(priceAction.getDate())));
+                } catch (Exception e) {
+                    logger.error("Skipping undecodable record at {}-{}", partition, record.offset(), e);
+                }
+            }
+        }
+
+        /**
+         * Ends partitions whose position has reached the end of their range. The
+         * position, unlike the last record seen, also moves past transaction markers.
+         */
+        private void markFinished(Consumer<String, byte[]> consumer) {
+            Iterator<TopicPartition> iterator = reading.iterator();
+            while (iterator.hasNext()) {
+                TopicPartition partition = iterator.next();
+                if (consumer.position(partition) >= ranges.get(partition)[1]) {
+                    overflow.get(partition).add(END);
+                    iterator.remove();
+                    consumer.pause(Collections.singleton(partition));
+                }
+            }
+        }
+
+        /** Moves buffered ticks into the merge queues, pausing partitions whose queue is full. */
+        private void drainOverflow(Consumer<String, byte[]> consumer) {
+            for (Map.Entry<TopicPartition, ArrayDeque<ReplayedTick>> entry : overflow.entrySet()) {
+                ArrayDeque<ReplayedTick> pending = entry.getValue();
+                BlockingQueue<ReplayedTick> queue = queues.get(entry.getKey());
+                while (!pending.isEmpty() && queue.offer(pending.peek())) {
+                    pending.poll();
+                }
+                if (!reading.contains(entry.getKey())) {
+                    continue;
+                }
+                Set<TopicPartition> partition = Collections.singleton(entry.getKey());
+                if (pending.isEmpty()) {
+                    consumer.resume(partition);
+                } else {
+                    consumer.pause(partition);
+                }
+            }
+        }
+
+        private boolean hasOverflow() {
+            for (ArrayDeque<ReplayedTick> pending : overflow.values()) {
+                if (!pending.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** The merge's view of one partition queue. */
+    private final class Cursor {
+        private final BlockingQueue<ReplayedTick> queue;
+        private ReplayedTick head;
+
+        private Cursor(BlockingQueue<ReplayedTick> queue) {
+            this.queue = queue;
+        }
+
+        /** Waits for the partition's next tick; returns false once the partition is exhausted. */
+        private boolean advance() throws InterruptedException {
+            ReplayedTick tick;
+            while ((tick = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+                Throwable readerFailure = failure.get();
+                if (readerFailure != null) {
+                    throw new IllegalStateException("Replay reader failed", readerFailure);
+                }
+            }
+            head = tick;
+            return tick != END;
+        }
+    }
+
+    private static final class ReplayedTick {
+        private final PriceAction priceAction;
+        private final int partition;
+        private final long offset;
+        private final long epochNanos;
+
+        private ReplayedTick(PriceAction priceAction, int partition, long offset, long epochNanos) {
+            this.priceAction = priceAction;
+            this.partition = partition;
+            this.offset = offset;
+            this.epochNanos = epochNanos;
+        }
+    }
+}
@@ -1,107 +1,144 @@
 package com.example.service;
 
 import com.example.domain.PriceAction;
-import com.example.domain.PriceActionImpl;
+import com.example.domain.PriceActionBatch;
+import com.example.domain.SymbolTable;
+import com.example.infrastructure.ConsumerMetrics;
 import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.LogSampler;
+import com.example.infrastructure.PriceActionDeserializer;
+import com.example.infrastructure.SequenceHeaderCodec;
+import com.example.infrastructure.TraceHeaderCodec;
+import com.example.presentation.AverageSink;
 import com.example.presentation.RollingAverageCalculator;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.example.presentation.SequenceReorderBuffer;
+import com.example.presentation.bar.BarAggregator;
+import com.example.presentation.indicator.UnderlyingIndicators;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.api.trace.Tracer;
-import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
-import io.opentelemetry.context.propagation.TextMapGetter;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class PriceActionService {
     private static final Logger logger = LoggerFactory.getLogger(PriceActionService.class);
     private final KafkaConsumerConfig kafkaConfig;
     private final RollingAverageCalculator rollingAverageCalculator;
+    private final BarAggregator barAggregator;
+    private final WindowCheckpointer checkpointer;
+    private final SequenceReorderBuffer reorderBuffer;
+    private final AverageSink latestAverages;
+    private final ConsumerMetrics metrics;
     private final Tracer tracer;
-    private final ObjectMapper objectMapper;
-    private final List<PriceAction> priceActions = new ArrayList<>();
-    private final W3CTraceContextPropagator propagator = W3CTraceContextPropagator.getInstance();
+    private final Deserializer<PriceAction> deserializer;
+    private final LogSampler processedLog = LogSampler.create();
+    private final Map<String, UnderlyingAggregate> batchAggregates = new HashMap<>();
+    private final List<UnderlyingAggregate> touchedAggregates = new ArrayList<>();
+    private final PriceActionBatch batch = new PriceActionBatch(new SymbolTable());
+    private final PriceActionBatch.View batchView = batch.view();
+    private final Consumer<PriceAction> applyTick = this::applyTick;
 
-    private static final TextMapGetter<ConsumerRecord<String, String>> HEADER_GETTER =
-        new TextMapGetter<ConsumerRecord<String, String>>() {
-            @Override
-            public Iterable<String> keys(ConsumerRecord<String, String> record) {
-                List<String> keys = new ArrayList<>();
-                for (Header header : record.headers()) {
-                    keys.add(header.key());
-                }
-                return keys;
-            }
+    public PriceActionService(
+            KafkaConsumerConfig kafkaConfig,
+            RollingAverageCalculator rollingAverageCalculator,
+            Deserializer<PriceAction> deserializer,
+            Tracer tracer) {
+        this(kafkaConfig, rollingAverageCalculator, BarAggregator.disabled(), WindowCheckpointer.disabled(),
+                ConsumerMetrics.create(OpenTelemetry.noop()), deserializer, tracer);
+    }
 
-            @Override
-            public String get(ConsumerRecord<String, String> record, String key) {
-                Header header = record.headers().lastHeader(key);
-                return header != null ? new String(header.value()) : null;
-            }
-        };
+    public PriceActionService(
+            KafkaConsumerConfig kafkaConfig,
+            RollingAverageCalculator rollingAverageCalculator,
+            BarAggregator barAggregator,
+            WindowCheckpointer checkpointer,
+            ConsumerMetrics metrics,
+            Deserializer<PriceAction> deserializer,
+            Tracer tracer) {
+        this(kafkaConfig, rollingAverageCalculator, barAggregator, checkpointer, SequenceReorderBuffer.disabled(),
+                metrics, deserializer, tracer);
+    }
 
+    /**
+     * With an enabled {@code reorderBuffer}, batch processing restores the
+     * producer's order of sequence-stamped underlyings before applying them.
+     * Record-at-a-time processing applies records in arrival order regardless.
+     */
     public PriceActionService(
             KafkaConsumerConfig kafkaConfig,
             RollingAverageCalculator rollingAverageCalculator,
+            BarAggregator barAggregator,
+            WindowCheckpointer checkpointer,
+            SequenceReorderBuffer reorderBuffer,
+            ConsumerMetrics metrics,
+            Deserializer<PriceAction> deserializer,
+            Tracer tracer) {
+        this(kafkaConfig, rollingAverageCalculator, barAggregator, checkpointer, reorderBuffer, AverageSink.discarding(),
+                metrics, deserializer, tracer);
+    }
+
+    /**
+     * Every rolling average this service computes is also handed to
+     * {@code latestAverages}, in every mode, by the thread that computed it.
+     */
+    public PriceActionService(
+            KafkaConsumerConfig kafkaConfig,
+            RollingAverageCalculator rollingAverageCalculator,
+            BarAggregator barAggregator,
+            WindowCheckpointer checkpointer,
+            SequenceReorderBuffer reorderBuffer,
+            AverageSink latestAverages,
+            ConsumerMetrics metrics,
+            Deserializer<PriceAction> deserializer,
             Tracer tracer) {
         this.kafkaConfig = kafkaConfig;
         this.rollingAverageCalculator = rollingAverageCalculator;
+        this.barAggregator = barAggregator;
+        this.checkpointer = checkpointer;
+        this.reorderBuffer = reorderBuffer;
+        this.latestAverages = latestAverages;
+        this.metrics = metrics;
+        this.deserializer = deserializer;
         this.tracer = tracer;
-        this.objectMapper = configureObjectMapper();
-    }
-
-    private ObjectMapper configureObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-
-        // Custom deserializer for PriceActionImpl
-        SimpleModule module = new SimpleModule();
-        module.addDeserializer(PriceActionImpl.class, new com.fasterxml.jackson.databind.JsonDeserializer<PriceActionImpl>() {
-            @Override
-            public PriceActionImpl deserialize(com.fasterxml.jackson.core.JsonParser p, 
-                                            com.fasterxml.jackson.databind.DeserializationContext ctxt) 
-                    throws java.io.IOException {
-                com.fasterxml.jackson.databind.JsonNode node = p.getCodec().readTree(p);
-                double open = node.get("open").asDouble();
-                double close = node.get("close").asDouble();
-                double high = node.get("high").asDouble();
-                double low = node.get("low").asDouble();
-                int volume = node.get("volume").asInt();
-                LocalDateTime date = LocalDateTime.parse(node.get("date").asText());
-                String underlying = node.get("underlying").asText();
-
-                return new PriceActionImpl(open, close, high, low, volume, date, underlying);
-            }
-        });
-        mapper.registerModule(module);
-
-        return mapper;
     }
 
     public void startConsuming() {
         Span span = tracer.spanBuilder("start-consuming-price-actions").startSpan();
         try (Scope scope = span.makeCurrent()) {
-            try (KafkaConsumer<String, String> consumer = kafkaConfig.createConsumer()) {
-                consumer.subscribe(Collections.singletonList("price-action"));
+            try (KafkaConsumer<String, byte[]> consumer = kafkaConfig.createConsumer(!checkpointer.isEnabled())) {
+                consumer.subscribe(Collections.singletonList(KafkaConsumerConfig.PRICE_ACTION_TOPIC),
+                        checkpointer.rebalanceListener(consumer));
 
                 while (true) {
-                    ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(100));
-                    for (ConsumerRecord<String, String> record : records) {
+                    ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                    for (ConsumerRecord<String, byte[]> record : records) {
                         processRecord(record);
                     }
+                    metrics.updateLag(consumer);
+                    barAggregator.advanceWatermark();
+                    if (checkpointer.isDue()) {
+                        checkpointer.checkpoint(consumer);
+                    }
                 }
             } catch (Exception e) {
                 logger.error("Error in consumer loop", e);
@@ -113,26 +150,262 @@ public class PriceActionService {
         }
     }
 
-    private void processRecord(ConsumerRecord<String, String> record) {
+    /**
+     * Consumes price actions one poll at a time: every record of a poll is
+     * decoded into a reusable {@link PriceActionBatch} and applied through its
+     * flyweight view in a single pass under one batch span, so steady-state polls
+     * allocate no price actions. One summary line per underlying is logged for
+     * the whole poll.
+     *
+     * <p>Reordering needs window checkpoints: they commit offsets only once the
+     * held ticks are drained, whereas auto-commit could commit past ticks still
+     * held and lose them on a restart.
+     */
+    public void startBatchConsuming() {
+        if (reorderBuffer.isEnabled() && !checkpointer.isEnabled()) {
+            throw new IllegalStateException("Reordering batches needs window checkpoints to commit offsets");
+        }
+        Span span = tracer.spanBuilder("start-consuming-price-action-batches")
+                .setAttribute("maxPollRecords", kafkaConfig.getMaxPollRecords())
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            try (KafkaConsumer<String, byte[]> consumer = kafkaConfig.createConsumer(!checkpointer.isEnabled())) {
+                consumer.subscribe(Collections.singletonList(KafkaConsumerConfig.PRICE_ACTION_TOPIC),
+                        drainingRebalanceListener(checkpointer.rebalanceListener(consumer)));
+
+                while (true) {
+                    ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                    if (!records.isEmpty()) {
+                        processBatch(records, AverageSink.discarding());
+                    }
+                    metrics.updateLag(consumer);
+                    barAggregator.advanceWatermark();
+                    if (checkpointer.isDue()) {
+                        // Held ticks are covered by the committed positions, so they must be in the snapshot
+                        drainReordered(AverageSink.discarding());
+                        checkpointer.checkpoint(consumer);
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Error in batch consumer loop", e);
+                span.recordException(e);
+                throw e;
+            }
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Decodes and applies every record of a poll, then hands the latest rolling
+     * average of each underlying the poll touched to {@code averages}.
+     */
+    public void processBatch(ConsumerRecords<String, byte[]> records, AverageSink averages) {
+        Instant start = Instant.now();
+        SpanBuilder spanBuilder = tracer.spanBuilder("process-price-action-batch")
+                .setStartTimestamp(start);
+        int processed = 0;
+        int failed = 0;
+
+        for (TopicPartition partition : records.partitions()) {
+            for (ConsumerRecord<String, byte[]> record : records.records(partition)) {
+                SpanContext producerContext = TraceHeaderCodec.extract(record.headers());
+                if (producerContext.isValid()) {
+                    spanBuilder.addLink(producerContext);
+                }
+
+                try {
+                    long decodeStart = System.nanoTime();
+                    PriceAction priceAction = batchView.moveTo(decodeInto(record));
+                    long computeStart = System.nanoTime();
+                    metrics.recordDecoded(record.serializedValueSize(), computeStart - decodeStart);
+                    byte[] sequence = reorderBuffer.isEnabled() ? SequenceHeaderCodec.find(record.headers()) : null;
+                    if (sequence == null) {
+                        applyTick(priceAction, partition.partition());
+                    } else {
+                        // Held ticks are applied without their record, so the partition is noted up front
+                        rollingAverageCalculator.indicatorsFor(priceAction.getUnderlying())
+                                .addPartition(partition.partition());
+                        reorderBuffer.offer(SequenceHeaderCodec.source(sequence), SequenceHeaderCodec.sequence(sequence),
+                                priceAction, applyTick);
+                    }
+                    metrics.recordProcessed(System.nanoTime() - computeStart, record.timestamp());
+                    processed++;
+                } catch (Exception e) {
+                    logger.error("Error processing record at {}-{}", partition, record.offset(), e);
+                    metrics.recordError();
+                    failed++;
+                }
+            }
+        }
+        reorderBuffer.expire(applyTick);
+        batch.clear();
+
+        Span span = spanBuilder
+                .setAttribute("batchSize", records.count())
+                .setAttribute("partitions", records.partitions().size())
+                .setAttribute("processed", processed)
+                .setAttribute("failed", failed)
+                .setAttribute("windowSize", rollingAverageCalculator.getWindowSize())
+                .startSpan();
+        if (reorderBuffer.isEnabled()) {
+            span.setAttribute("heldForReorder", reorderBuffer.held());
+        }
+        try (Scope scope = span.makeCurrent()) {
+            UnderlyingAggregate latest = publishTouched(averages);
+
+            long summarized = processedLog.sample(processed);
+            if (summarized > 0 && latest != null) {
+                logger.info("Processed {} price actions since the last summary. Latest {}: Rolling Average: {} Indicators: {}",
+                        summarized, latest.underlying, latest.lastAverage,
+                        rollingAverageCalculator.indicatorsFor(latest.underlying));
+            }
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Applies every tick still held for reordering and publishes the averages it
+     * changes, so that offsets about to be committed cover only applied ticks.
+     */
+    public void drainReordered(AverageSink averages) {
+        if (reorderBuffer.held() == 0) {
+            return;
+        }
+        logger.debug("Draining {} price actions held for reordering", reorderBuffer.held());
+        reorderBuffer.drain(applyTick);
+        publishTouched(averages);
+    }
+
+    private void applyTick(PriceAction priceAction) {
+        applyTick(priceAction, UnderlyingIndicators.NO_PARTITION);
+    }
+
+    private void applyTick(PriceAction priceAction, int partition) {
+        double rollingAverage = rollingAverageCalculator.update(priceAction, partition);
+        barAggregator.onTick(priceAction);
+        aggregateFor(priceAction.getUnderlying()).add(rollingAverage);
+    }
+
+    /** Publishes and resets the aggregates touched since the last call, returning the last of them. */
+    private UnderlyingAggregate publishTouched(AverageSink averages) {
+        boolean debug = logger.isDebugEnabled();
+        UnderlyingAggregate latest = null;
+        for (UnderlyingAggregate aggregate : touchedAggregates) {
+            if (debug) {
+                logger.debug("Processed {} price actions for {}. Rolling Average: {} Indicators: {}",
+                        aggregate.count, aggregate.underlying, aggregate.lastAverage,
+                        rollingAverageCalculator.indicatorsFor(aggregate.underlying));
+            }
+            averages.publish(aggregate.underlying, aggregate.lastAverage, aggregate.count);
+            latestAverages.publish(aggregate.underlying, aggregate.lastAverage, aggregate.count);
+            aggregate.count = 0;
+            latest = aggregate;
+        }
+        touchedAggregates.clear();
+        return latest;
+    }
+
+    private ConsumerRebalanceListener drainingRebalanceListener(ConsumerRebalanceListener delegate) {
+        return new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                drainReordered(AverageSink.discarding());
+                delegate.onPartitionsRevoked(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                delegate.onPartitionsAssigned(partitions);
+            }
+        };
+    }
+
+    private int decodeInto(ConsumerRecord<String, byte[]> record) {
+        if (deserializer instanceof PriceActionDeserializer) {
+            return ((PriceActionDeserializer) deserializer).deserializeInto(record.headers(), record.value(), batch);
+        }
+        return batch.add(deserializer.deserialize(record.topic(), record.headers(), record.value()));
+    }
+
+    private UnderlyingAggregate aggregateFor(String underlying) {
+        UnderlyingAggregate aggregate = batchAggregates.get(underlying);
+        if (aggregate == null) {
+            aggregate = new UnderlyingAggregate(underlying);
+            batchAggregates.put(underlying, aggregate);
+        }
+        if (aggregate.count == 0) {
+            touchedAggregates.add(aggregate);
+        }
+        return aggregate;
+    }
+
+    /**
+     * Decodes and applies a single record under its own span. Safe to call from
+     * several threads as long as each underlying is only ever handled by one of them.
+     */
+    public void processRecord(ConsumerRecord<String, byte[]> record) {
         // Extract context from Kafka headers
-        Context extractedContext = propagator.extract(Context.current(), record, HEADER_GETTER);
+        SpanContext producerContext = TraceHeaderCodec.extract(record.headers());
+        Context extractedContext = producerContext.isValid()
+                ? Context.current().with(Span.wrap(producerContext))
+                : Context.current();
         Span span = tracer.spanBuilder("process-price-action-record")
                 .setParent(extractedContext)
                 .setAttribute("offset", record.offset())
                 .startSpan();
 
         try (Scope scope = span.makeCurrent()) {
-            PriceAction priceAction = objectMapper.readValue(record.value(), PriceActionImpl.class);
-            priceActions.add(priceAction);
-            
-            double rollingAverage = rollingAverageCalculator.calculateRollingAverage(priceActions);
-            logger.info("Processed price action. Rolling Average: {}", rollingAverage);
+            long decodeStart = System.nanoTime();
+            PriceAction priceAction = deserializer.deserialize(record.topic(), record.headers(), record.value());
+            long computeStart = System.nanoTime();
+            metrics.recordDecoded(record.serializedValueSize(), computeStart - decodeStart);
+            double rollingAverage = rollingAverageCalculator.calculateRollingAverage(priceAction, record.partition());
+            barAggregator.onTick(priceAction);
+            latestAverages.publish(priceAction.getUnderlying(), rollingAverage, 1);
+            metrics.recordProcessed(System.nanoTime() - computeStart, record.timestamp());
+            long summarized = processedLog.sample();
+            if (summarized > 0) {
+                logger.info("Processed {} price actions since the last summary. Latest {}: Rolling Average: {} Indicators: {}",
+                        summarized, priceAction.getUnderlying(), rollingAverage,
+                        rollingAverageCalculator.indicatorsFor(priceAction.getUnderlying()));
+            }
             
         } catch (Exception e) {
             logger.error("Error processing record", e);
+            metrics.recordError();
             span.recordException(e);
         } finally {
             span.end();
         }
     }
-}
\ No newline at end of file
+
+    public BarAggregator getBarAggregator() {
+        return barAggregator;
+    }
+
+    public WindowCheckpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    public ConsumerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Per-underlying totals for the poll currently being processed, reused across polls. */
+    private static final class UnderlyingAggregate {
+        private final String underlying;
+        private int count;
+        private double lastAverage;
+
+        private UnderlyingAggregate(String underlying) {
+            this.underlying = underlying;
+        }
+
+        private void add(double rollingAverage) {
+            count++;
+            lastAverage = rollingAverage;
+        }
+    }
+}
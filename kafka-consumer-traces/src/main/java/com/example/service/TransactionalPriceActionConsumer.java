@@ -0,0 +1,173 @@
+package com.example.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.TransactionalOutput;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Exactly-once processing: reads committed records only, applies each poll as a
+ * batch and writes the resulting averages and bars through a
+ * {@link TransactionalOutput}, whose transaction also carries the consumed
+ * offsets. Auto-commit is off, so offsets only ever advance together with the
+ * outputs derived from them.
+ *
+ * <p>Transactions span several polls and are committed once
+ * {@code maxPollsPerTransaction} polls or {@code maxTransactionMs} have passed,
+ * trading output latency for fewer commits. An open transaction is committed
+ * before partitions are revoked, so a rebalance never loses or repeats output.
+ * On any failure the transaction is aborted and the error is rethrown: the
+ * in-memory windows already contain the aborted records, so the instance has to
+ * restart from the committed offsets rather than carry on.
+ */
+public class TransactionalPriceActionConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionalPriceActionConsumer.class);
+
+    private final KafkaConsumerConfig kafkaConfig;
+    private final PriceActionService priceActionService;
+    private final TransactionalOutput output;
+    private final Tracer tracer;
+    private final int maxPollsPerTransaction;
+    private final long maxTransactionNanos;
+    private final Map<TopicPartition, OffsetAndMetadata> pendingOffsets = new HashMap<>();
+    private int pendingPolls;
+    private long transactionStart = System.nanoTime();
+
+    public TransactionalPriceActionConsumer(KafkaConsumerConfig kafkaConfig,
+                                            PriceActionService priceActionService,
+                                            TransactionalOutput output,
+                                            Tracer tracer,
+                                            int maxPollsPerTransaction,
+                                            long maxTransactionMs) {
+        if (maxPollsPerTransaction <= 0 || maxTransactionMs <= 0) {
+            throw new IllegalArgumentException("maxPollsPerTransaction and maxTransactionMs must be positive");
+        }
+        this.kafkaConfig = kafkaConfig;
+        this.priceActionService = priceActionService;
+        this.output = output;
+        this.tracer = tracer;
+        this.maxPollsPerTransaction = maxPollsPerTransaction;
+        this.maxTransactionNanos = TimeUnit.MILLISECONDS.toNanos(maxTransactionMs);
+    }
+
+    public void startConsuming() {
+        Span span = tracer.spanBuilder("start-consuming-price-actions-transactionally")
+                .setAttribute("maxPollsPerTransaction", maxPollsPerTransaction)
+                .setAttribute("maxTransactionMs", TimeUnit.NANOSECONDS.toMillis(maxTransactionNanos))
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            try (KafkaConsumer<String, byte[]> consumer = kafkaConfig.createConsumer(false, true)) {
+                consumer.subscribe(Collections.singletonList(KafkaConsumerConfig.PRICE_ACTION_TOPIC),
+                        rebalanceListener(consumer));
+
+                while (true) {
+                    ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                    // Idle polls open a transaction only once per interval, to close bars of quiet underlyings
+                    if (!records.isEmpty() || isTransactionDue()) {
+                        output.beginTransaction();
+                    }
+                    if (!output.isInTransaction()) {
+                        continue;
+                    }
+
+                    if (!records.isEmpty()) {
+                        priceActionService.processBatch(records, output);
+                        trackOffsets(records);
+                    }
+                    priceActionService.getMetrics().updateLag(consumer);
+                    priceActionService.getBarAggregator().advanceWatermark();
+                    pendingPolls++;
+                    if (pendingPolls >= maxPollsPerTransaction || isTransactionDue()) {
+                        commit(consumer);
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Error in transactional consumer loop; aborting the open transaction", e);
+                output.abortTransaction();
+                span.recordException(e);
+                throw e;
+            }
+        } finally {
+            output.close();
+            span.end();
+        }
+    }
+
+    private boolean isTransactionDue() {
+        return System.nanoTime() - transactionStart >= maxTransactionNanos;
+    }
+
+    private void trackOffsets(ConsumerRecords<String, byte[]> records) {
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+            long next = partitionRecords.get(partitionRecords.size() - 1).offset() + 1;
+            pendingOffsets.put(partition, new OffsetAndMetadata(next));
+        }
+    }
+
+    /** Commits the open transaction together with the offsets of every record it covers. */
+    private void commit(Consumer<String, byte[]> consumer) {
+        Span span = tracer.spanBuilder("commit-price-action-transaction")
+                .setAttribute("polls", pendingPolls)
+                .setAttribute("partitions", pendingOffsets.size())
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            // Ticks held for reordering belong to the committed offsets, so they go into this transaction
+            priceActionService.drainReordered(output);
+            output.commitTransaction(pendingOffsets, consumer.groupMetadata());
+            logger.debug("Committed transaction of {} polls at offsets {}", pendingPolls, pendingOffsets);
+            pendingOffsets.clear();
+            pendingPolls = 0;
+            transactionStart = System.nanoTime();
+            // Every polled record has been applied, so the positions are exactly the committed offsets
+            priceActionService.getCheckpointer().snapshot(consumer);
+        } finally {
+            span.end();
+        }
+    }
+
+    private ConsumerRebalanceListener rebalanceListener(Consumer<String, byte[]> consumer) {
+        return new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                if (output.isInTransaction()) {
+                    logger.info("Committing open transaction before revoking {}", partitions);
+                    commit(consumer);
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                priceActionService.getCheckpointer().verifyRestored(consumer, partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Collection<TopicPartition> partitions) {
+                // Ownership is already gone, so the offsets cannot be committed any more
+                if (output.isInTransaction()) {
+                    throw new IllegalStateException("Lost partitions " + partitions + " with an uncommitted transaction");
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.infrastructure.WindowSnapshotStore;
+import com.example.presentation.indicator.IndicatorEngine;
+
+/**
+ * Keeps window snapshots and committed offsets in step. Every checkpoint
+ * commits the consumer's positions and snapshots the windows at exactly those
+ * positions; on startup the windows are restored and the partitions are sought
+ * back to the snapshot's offsets, so no history has to be replayed.
+ *
+ * <p>Snapshots are local, so partitions that move to another instance are
+ * rebuilt there from the committed offsets onwards.
+ */
+public class WindowCheckpointer {
+    private static final Logger logger = LoggerFactory.getLogger(WindowCheckpointer.class);
+
+    private final WindowSnapshotStore store;
+    private final long intervalNanos;
+    private final Map<TopicPartition, Long> restoredOffsets = new HashMap<>();
+    private long lastCheckpoint = System.nanoTime();
+
+    private WindowCheckpointer(WindowSnapshotStore store, long intervalMs) {
+        this.store = store;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    }
+
+    /** Opens the snapshot files in the directory and restores the newest snapshot into the engine. */
+    public static WindowCheckpointer open(Path directory, IndicatorEngine engine, long intervalMs) {
+        return open(directory, engine, intervalMs, true);
+    }
+
+    /**
+     * Opens the snapshot files in the directory without restoring them, for a
+     * replay that rebuilds the engine from scratch. Its snapshot supersedes the
+     * existing ones.
+     */
+    public static WindowCheckpointer openForReplay(Path directory, IndicatorEngine engine) {
+        return open(directory, engine, Long.MAX_VALUE, false);
+    }
+
+    private static WindowCheckpointer open(Path directory, IndicatorEngine engine, long intervalMs, boolean restore) {
+        try {
+            WindowCheckpointer checkpointer = new WindowCheckpointer(new WindowSnapshotStore(directory, engine), intervalMs);
+            if (restore) {
+                checkpointer.restoredOffsets.putAll(checkpointer.store.restore());
+            }
+            return checkpointer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open window snapshots in " + directory, e);
+        }
+    }
+
+    /** A checkpointer that never snapshots and leaves offsets to auto-commit. */
+    public static WindowCheckpointer disabled() {
+        return new WindowCheckpointer(null, Long.MAX_VALUE);
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    public boolean isDue() {
+        return store != null && System.nanoTime() - lastCheckpoint >= intervalNanos;
+    }
+
+    /** Seeks newly assigned partitions to the offsets of the restored snapshot, once. */
+    public void seekRestored(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            Long offset = restoredOffsets.remove(partition);
+            if (offset != null) {
+                logger.info("Resuming {} from window snapshot offset {}", partition, offset);
+                consumer.seek(partition, offset);
+            }
+        }
+    }
+
+    /**
+     * Commits the consumer's current positions and snapshots the windows at
+     * them. Every record polled so far must have been applied, and no underlying
+     * may be updated while this runs.
+     */
+    public void checkpoint(Consumer<?, ?> consumer) {
+        if (store == null) {
+            return;
+        }
+        Map<TopicPartition, Long> offsets = positions(consumer);
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        offsets.forEach((partition, position) -> commits.put(partition, new OffsetAndMetadata(position)));
+        consumer.commitSync(commits);
+        write(offsets);
+    }
+
+    /**
+     * Snapshots the windows at the consumer's current positions without
+     * committing them, for callers that have just committed those positions
+     * themselves, e.g. inside a producer transaction.
+     */
+    public void snapshot(Consumer<?, ?> consumer) {
+        if (store != null) {
+            write(positions(consumer));
+        }
+    }
+
+    /**
+     * Snapshots the windows as of the given offsets, for callers that know the
+     * windows reflect exactly the records before them, such as a finished replay.
+     */
+    public void snapshot(Map<TopicPartition, Long> offsets) {
+        if (store != null) {
+            write(offsets);
+        }
+    }
+
+    /**
+     * Checks restored offsets against the group's committed offsets instead of
+     * seeking to them, for consumers whose outputs are transactional: replaying
+     * from an older snapshot would publish those outputs twice. A mismatch means
+     * the instance stopped between a commit and its snapshot, so the windows of
+     * that partition's underlyings are behind by at most one transaction.
+     */
+    public void verifyRestored(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        for (TopicPartition partition : partitions) {
+            Long offset = restoredOffsets.remove(partition);
+            OffsetAndMetadata commit = committed.get(partition);
+            if (offset != null && (commit == null || commit.offset() != offset)) {
+                logger.warn("Window snapshot of {} is at offset {} but the committed offset is {}; resuming from the commit",
+                        partition, offset, commit != null ? commit.offset() : null);
+            }
+        }
+    }
+
+    private static Map<TopicPartition, Long> positions(Consumer<?, ?> consumer) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            offsets.put(partition, consumer.position(partition));
+        }
+        return offsets;
+    }
+
+    private void write(Map<TopicPartition, Long> offsets) {
+        try {
+            store.write(offsets);
+        } catch (IOException e) {
+            logger.warn("Failed to write window snapshot at offsets {}", offsets, e);
+        }
+        lastCheckpoint = System.nanoTime();
+    }
+
+    /** Seeks restored partitions on assignment and checkpoints before partitions are taken away. */
+    public ConsumerRebalanceListener rebalanceListener(Consumer<?, ?> consumer) {
+        return new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+                if (!partitions.isEmpty()) {
+                    checkpoint(consumer);
+                }
+            }
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+                seekRestored(consumer, partitions);
+            }
+        };
+    }
+}
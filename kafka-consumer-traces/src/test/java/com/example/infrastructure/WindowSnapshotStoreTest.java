@@ -0,0 +1,249 @@
+package com.example.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.Indicators;
+import com.example.presentation.indicator.UnderlyingIndicators;
+
+class WindowSnapshotStoreTest {
+    private static final int WINDOW_SIZE = 20;
+    private static final TopicPartition PARTITION = new TopicPartition("price-actions", 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesAlternateSlotsAndLeaveThePreviousSnapshotIntact() throws IOException {
+        IndicatorEngine engine = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine)) {
+            apply(engine, 0, 10);
+            store.write(offsets(10));
+            assertEquals(-1, sequenceOf(0));
+            assertEquals(1, sequenceOf(1));
+
+            apply(engine, 10, 20);
+            store.write(offsets(20));
+            assertEquals(2, sequenceOf(0));
+            assertEquals(1, sequenceOf(1));
+
+            apply(engine, 20, 30);
+            store.write(offsets(30));
+            assertEquals(2, sequenceOf(0));
+            assertEquals(3, sequenceOf(1));
+        }
+
+        try (WindowSnapshotStore reopened = new WindowSnapshotStore(directory, engine())) {
+            assertEquals(offsets(30), reopened.restore());
+        }
+    }
+
+    @Test
+    void fallsBackToTheOlderSlotOnCrcMismatch() throws IOException {
+        writeTwoSnapshots();
+
+        // Snapshot 2 sits in slot 0; flip a payload byte without touching its header.
+        try (FileChannel channel = FileChannel.open(slot(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, 40);
+            b.put(0, (byte) ~b.get(0)).rewind();
+            channel.write(b, 40);
+        }
+
+        IndicatorEngine restored = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, restored)) {
+            assertEquals(offsets(10), store.restore());
+        }
+        assertSameIndicators(engineAfter(10), restored);
+    }
+
+    @Test
+    void fallsBackToTheOlderSlotOnTornWrite() throws IOException {
+        writeTwoSnapshots();
+
+        // A crash mid-write leaves a header whose payload is not all on disk.
+        try (FileChannel channel = FileChannel.open(slot(0), StandardOpenOption.WRITE)) {
+            channel.truncate(48);
+        }
+
+        IndicatorEngine restored = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, restored)) {
+            assertEquals(offsets(10), store.restore());
+        }
+        assertSameIndicators(engineAfter(10), restored);
+    }
+
+    @Test
+    void ignoresSnapshotOfADifferentIndicatorSet() throws IOException {
+        writeTwoSnapshots();
+
+        IndicatorEngine other = new IndicatorEngine(WINDOW_SIZE, Indicators.parse("sma,ema"));
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, other)) {
+            assertTrue(store.restore().isEmpty());
+        }
+        assertTrue(other.all().isEmpty());
+    }
+
+    @Test
+    void restoredStateContinuesLikeAnUninterruptedRun() throws IOException {
+        // Past the window size, so EMA and ATR carry state the window alone cannot rebuild.
+        int checkpoint = 3 * WINDOW_SIZE + 7;
+        int end = 5 * WINDOW_SIZE;
+
+        IndicatorEngine uninterrupted = engineAfter(checkpoint);
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, uninterrupted)) {
+            store.write(offsets(checkpoint));
+        }
+        apply(uninterrupted, checkpoint, end);
+
+        IndicatorEngine restarted = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, restarted)) {
+            assertEquals(offsets(checkpoint), store.restore());
+        }
+        apply(restarted, checkpoint, end);
+
+        assertSameIndicators(uninterrupted, restarted);
+    }
+
+    @Test
+    void writeWithoutRestoreSupersedesExistingSnapshots() throws IOException {
+        writeTwoSnapshots();
+
+        IndicatorEngine replayed = engineAfter(5);
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, replayed)) {
+            store.write(offsets(5));
+        }
+        assertEquals(3, sequenceOf(1));
+
+        IndicatorEngine restored = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, restored)) {
+            assertEquals(offsets(5), store.restore());
+        }
+        assertSameIndicators(replayed, restored);
+    }
+
+    @Test
+    void leavesOutUnderlyingsReadFromPartitionsWithoutAnOffset() throws IOException {
+        TopicPartition other = new TopicPartition(PARTITION.topic(), 1);
+        IndicatorEngine engine = engine();
+        apply(engine, 0, 10);
+        engine.indicatorsFor("NVDA").addPartition(PARTITION.partition());
+        engine.indicatorsFor("AAPL").addPartition(PARTITION.partition());
+        // MSFT moved to partition 1 after its revocation, so this snapshot's offsets no longer cover it
+        engine.indicatorsFor("MSFT").update(300, 301, 299, 10);
+        engine.indicatorsFor("MSFT").addPartition(other.partition());
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine)) {
+            store.write(offsets(10));
+        }
+
+        IndicatorEngine restored = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, restored)) {
+            assertEquals(offsets(10), store.restore());
+        }
+        assertEquals(2, restored.all().size());
+        assertEquals(PARTITION.partition(), restored.indicatorsFor("NVDA").getPartitions().nextSetBit(0));
+        assertEquals(1, restored.indicatorsFor("NVDA").getPartitions().cardinality());
+
+        // Once the snapshot covers partition 1 as well, every underlying is restored, AAPL with both partitions
+        engine.indicatorsFor("AAPL").addPartition(other.partition());
+        Map<TopicPartition, Long> both = new HashMap<>(offsets(10));
+        both.put(other, 3L);
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine)) {
+            store.write(both);
+        }
+        IndicatorEngine again = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, again)) {
+            assertEquals(both, store.restore());
+        }
+        assertSameIndicators(engine, again);
+        assertEquals(engine.indicatorsFor("AAPL").getPartitions(), again.indicatorsFor("AAPL").getPartitions());
+    }
+
+    @Test
+    void restoresNothingFromAnEmptyDirectory() throws IOException {
+        IndicatorEngine engine = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine)) {
+            assertEquals(Collections.emptyMap(), store.restore());
+        }
+        assertTrue(engine.all().isEmpty());
+    }
+
+    private void writeTwoSnapshots() throws IOException {
+        IndicatorEngine engine = engine();
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine)) {
+            apply(engine, 0, 10);
+            store.write(offsets(10));
+            apply(engine, 10, 20);
+            store.write(offsets(20));
+        }
+    }
+
+    private long sequenceOf(int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(slot(slot), StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return -1;
+            }
+            ByteBuffer header = ByteBuffer.allocate(16);
+            channel.read(header, 0);
+            return header.getLong(8);
+        }
+    }
+
+    private Path slot(int slot) {
+        return directory.resolve("window-state-" + slot + ".bin");
+    }
+
+    private static IndicatorEngine engine() {
+        return new IndicatorEngine(WINDOW_SIZE, Indicators.parse(Indicators.ALL));
+    }
+
+    private static IndicatorEngine engineAfter(int ticks) {
+        IndicatorEngine engine = engine();
+        apply(engine, 0, ticks);
+        return engine;
+    }
+
+    /** Applies ticks {@code from} (inclusive) to {@code to} of two underlyings. */
+    private static void apply(IndicatorEngine engine, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double close = 100 + 10 * Math.sin(i / 7.0) + i % 3;
+            engine.indicatorsFor("NVDA").update(close, close + 1 + i % 4, close - 1 - i % 5, 100 + i);
+            engine.indicatorsFor("AAPL").update(close / 2, close / 2 + 0.5, close / 2 - 0.25, 50 + i % 11);
+        }
+    }
+
+    private static Map<TopicPartition, Long> offsets(long offset) {
+        return Collections.singletonMap(PARTITION, offset);
+    }
+
+    private static void assertSameIndicators(IndicatorEngine expected, IndicatorEngine actual) {
+        assertEquals(expected.all().size(), actual.all().size());
+        for (UnderlyingIndicators want : expected.all()) {
+            UnderlyingIndicators got = actual.indicatorsFor(want.getUnderlying());
+            assertEquals(want.getWindow().size(), got.getWindow().size(), want.getUnderlying());
+            for (int i = 0; i < want.getWindow().size(); i++) {
+                assertEquals(want.getWindow().closeAt(i), got.getWindow().closeAt(i));
+            }
+            for (int i = 0; i < want.size(); i++) {
+                String name = want.getUnderlying() + " " + want.get(i).name();
+                assertEquals(want.get(i).isReady(), got.get(i).isReady(), name);
+                // Sums rebuilt from the window may differ from running ones in the last bits.
+                assertEquals(want.get(i).value(), got.get(i).value(), 1e-9, name);
+            }
+        }
+    }
+}
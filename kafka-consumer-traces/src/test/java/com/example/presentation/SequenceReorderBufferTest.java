@@ -0,0 +1,142 @@
+package com.example.presentation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionImpl;
+
+class SequenceReorderBufferTest {
+    private static final long SOURCE = 42;
+    private static final long HOLD_FOREVER_MS = 60_000;
+
+    private final List<Long> applied = new ArrayList<>();
+
+    @Test
+    void appliesAStreamStartingAtZeroInOrder() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, HOLD_FOREVER_MS, HOLD_FOREVER_MS);
+        offer(buffer, "NVDA", 0, 1, 2);
+
+        assertEquals(Arrays.asList(0L, 1L, 2L), applied);
+        assertEquals(0, buffer.held());
+    }
+
+    @Test
+    void holdsEarlyTicksUntilTheGapFills() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, HOLD_FOREVER_MS, HOLD_FOREVER_MS);
+        offer(buffer, "NVDA", 0, 3, 2);
+        assertEquals(Arrays.asList(0L), applied);
+        assertEquals(2, buffer.held());
+
+        offer(buffer, "NVDA", 1);
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L), applied);
+        assertEquals(0, buffer.held());
+        assertEquals(0, buffer.late());
+        assertEquals(0, buffer.skipped());
+    }
+
+    @Test
+    void startsAStreamPickedUpMidwayAtItsLowestSequence() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, 0, HOLD_FOREVER_MS);
+        // After a restart, the partition holding 5 and 6 happens to be polled first
+        offer(buffer, "NVDA", 6, 5, 3);
+        assertEquals(0, applied.size());
+
+        offer(buffer, "NVDA", 4);
+        buffer.expire(applied());
+        assertEquals(Arrays.asList(3L, 4L, 5L, 6L), applied);
+        assertEquals(0, buffer.late());
+        assertEquals(0, buffer.skipped());
+    }
+
+    @Test
+    void skipsTheGapOnceTooManyTicksAreHeld() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(2, HOLD_FOREVER_MS, HOLD_FOREVER_MS);
+        offer(buffer, "NVDA", 0, 3, 4);
+        assertEquals(Arrays.asList(0L), applied);
+
+        offer(buffer, "NVDA", 5);
+        assertEquals(Arrays.asList(0L, 3L, 4L, 5L), applied);
+        assertEquals(2, buffer.skipped());
+
+        offer(buffer, "NVDA", 1);
+        assertEquals(Arrays.asList(0L, 3L, 4L, 5L, 1L), applied);
+        assertEquals(1, buffer.late());
+    }
+
+    @Test
+    void skipsTheGapOnceTheHoldLimitHasPassed() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, 0, HOLD_FOREVER_MS);
+        offer(buffer, "NVDA", 0, 2, 3);
+        assertEquals(Arrays.asList(0L), applied);
+
+        buffer.expire(applied());
+        assertEquals(Arrays.asList(0L, 2L, 3L), applied);
+        assertEquals(1, buffer.skipped());
+        assertEquals(0, buffer.held());
+    }
+
+    @Test
+    void drainAppliesEveryHeldTickInOrder() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, HOLD_FOREVER_MS, HOLD_FOREVER_MS);
+        offer(buffer, "NVDA", 0, 4, 2);
+        offer(buffer, "AAPL", 7);
+
+        buffer.drain(applied());
+        assertEquals(Arrays.asList(0L, 2L, 4L, 7L), applied);
+        assertEquals(0, buffer.held());
+        assertEquals(2, buffer.skipped());
+    }
+
+    @Test
+    void keepsSourcesAndUnderlyingsApart() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, HOLD_FOREVER_MS, HOLD_FOREVER_MS);
+        offer(buffer, "NVDA", 0, 1);
+        offer(buffer, "AAPL", 0);
+        buffer.offer(SOURCE + 1, 0, tick("NVDA", 0), applied());
+
+        assertEquals(Arrays.asList(0L, 1L, 0L, 0L), applied);
+        assertEquals(3, buffer.streams());
+        assertEquals(0, buffer.late());
+    }
+
+    @Test
+    void forgetsIdleStreamsButNotOnesHoldingTicks() {
+        SequenceReorderBuffer buffer = SequenceReorderBuffer.create(10, HOLD_FOREVER_MS, 0);
+        offer(buffer, "NVDA", 0, 1);
+        offer(buffer, "AAPL", 5);
+        assertEquals(2, buffer.streams());
+
+        buffer.expire(applied());
+        assertEquals(1, buffer.streams());
+        assertEquals(1, buffer.held());
+
+        buffer.drain(applied());
+        buffer.expire(applied());
+        assertEquals(0, buffer.streams());
+        assertEquals(Arrays.asList(0L, 1L, 5L), applied);
+    }
+
+    private void offer(SequenceReorderBuffer buffer, String underlying, long... sequences) {
+        for (long sequence : sequences) {
+            buffer.offer(SOURCE, sequence, tick(underlying, sequence), applied());
+        }
+    }
+
+    private Consumer<PriceAction> applied() {
+        return tick -> applied.add((long) tick.getClose());
+    }
+
+    /** A tick whose close is its sequence number, so the applied order can be read back. */
+    private static PriceAction tick(String underlying, long sequence) {
+        return new PriceActionImpl(sequence, sequence, sequence, sequence, 1,
+                LocalDateTime.of(2024, 1, 2, 9, 30), underlying);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.presentation.indicator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.presentation.PriceWindow;
+
+class IndicatorResyncTest {
+    private static final int WINDOW_SIZE = 20;
+
+    private final VolumeWeightedAveragePrice vwap = new VolumeWeightedAveragePrice();
+    private final RollingStandardDeviation stddev = new RollingStandardDeviation();
+    private final UnderlyingIndicators indicators = new UnderlyingIndicators("NVDA", WINDOW_SIZE,
+            Arrays.asList(windowSize -> vwap, windowSize -> stddev));
+
+    @Test
+    void recomputesTheSumsFromTheWindowWhenTheWindowResyncs() {
+        apply(0, PriceWindow.RESYNC_INTERVAL);
+        assertTrue(indicators.getWindow().hasResynced());
+
+        // Freshly recomputed, so exactly what a scan of the window gives
+        assertEquals(scannedVwap(), vwap.value());
+        assertEquals(scannedStddev(), stddev.value());
+    }
+
+    @Test
+    void staysCloseToAScanOfTheWindowBetweenResyncs() {
+        apply(0, PriceWindow.RESYNC_INTERVAL + 1000);
+
+        assertEquals(scannedVwap(), vwap.value(), 1e-9 * scannedVwap());
+        assertEquals(scannedStddev(), stddev.value(), 1e-6 * scannedStddev());
+    }
+
+    @Test
+    void reportsZeroDeviationForAFlatWindow() {
+        for (int i = 0; i < 3 * WINDOW_SIZE; i++) {
+            indicators.update(0.1 * 3, 0.1 * 3, 0.1 * 3, 100);
+        }
+
+        assertEquals(0.0, stddev.value());
+    }
+
+    /** Closes far from zero with small moves, where cancellation makes running sums drift fastest. */
+    private void apply(long from, long to) {
+        for (long i = from; i < to; i++) {
+            double close = 1_000_000 + Math.sin(i / 7.0) + (i % 13) * 0.001;
+            indicators.update(close, close + 0.5, close - 0.25, 100 + (int) (i % 17));
+        }
+    }
+
+    private double scannedVwap() {
+        PriceWindow window = indicators.getWindow();
+        long first = window.count() - window.size();
+        double priceVolume = 0.0;
+        long volume = 0;
+        for (int i = 0; i < window.size(); i++) {
+            long tick = first + i;
+            priceVolume += (window.highAt(tick) + window.lowAt(tick) + window.closeAt(i)) / 3.0 * window.volumeAt(tick);
+            volume += window.volumeAt(tick);
+        }
+        return priceVolume / volume;
+    }
+
+    private double scannedStddev() {
+        PriceWindow window = indicators.getWindow();
+        double sum = 0.0;
+        for (int i = 0; i < window.size(); i++) {
+            sum += window.closeAt(i);
+        }
+        double mean = sum / window.size();
+        double squares = 0.0;
+        for (int i = 0; i < window.size(); i++) {
+            double delta = window.closeAt(i) - mean;
+            squares += delta * delta;
+        }
+        return Math.sqrt(squares / (window.size() - 1));
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionImpl;
+import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.WindowSnapshotStore;
+import com.example.presentation.PriceWindow;
+import com.example.presentation.RollingAverageCalculator;
+import com.example.presentation.bar.BarAggregator;
+import com.example.presentation.indicator.Indicator;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.Indicators;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+
+class PriceActionReplayTest {
+    private static final String TOPIC = KafkaConsumerConfig.PRICE_ACTION_TOPIC;
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+    private static final TopicPartition P2 = new TopicPartition(TOPIC, 2);
+
+    /** Records by partition, each {@code {timestamp millis, close}} in offset order. */
+    private static final Map<TopicPartition, double[][]> LOG = new HashMap<>();
+
+    static {
+        LOG.put(P0, new double[][] {{1000, 1}, {3000, 3}, {3000, 3.5}});
+        LOG.put(P1, new double[][] {{2000, 2}, {3000, 3.25}, {4000, 4}, {9000, 9}});
+        // Only history before the range, so nothing of it is replayed
+        LOG.put(P2, new double[][] {{500, 0.5}});
+    }
+
+    @TempDir
+    Path directory;
+
+    private final Tracer tracer = OpenTelemetry.noop().getTracer("test");
+    private final List<Double> applied = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void replaysTheRangeOfEveryPartitionInEventTimeOrder() throws InterruptedException {
+        PriceActionReplay replay = replay(engine(), WindowCheckpointer.disabled(), 2);
+
+        assertEquals(5, replay.replay(1500, 5000));
+        // Ties on event time go by partition, then offset
+        assertEquals(Arrays.asList(2.0, 3.0, 3.5, 3.25, 4.0), applied);
+    }
+
+    @Test
+    void replaysWithOneReaderPerPartitionAndSmallQueues() throws InterruptedException {
+        PriceActionReplay replay = new PriceActionReplay(LogConsumer::new,
+                new RollingAverageCalculator(tracer, engine(), false), BarAggregator.disabled(),
+                WindowCheckpointer.disabled(), PriceActionReplayTest::decode, tracer, 3, 1);
+
+        assertEquals(5, replay.replay(1500, 5000));
+        assertEquals(Arrays.asList(2.0, 3.0, 3.5, 3.25, 4.0), applied);
+    }
+
+    @Test
+    void snapshotsTheEndOffsetOfEveryPartitionIncludingEmptyRanges() throws Exception {
+        IndicatorEngine engine = engine();
+        replay(engine, WindowCheckpointer.openForReplay(directory, engine), 1).replay(1500, 5000);
+
+        Map<TopicPartition, Long> expected = new HashMap<>();
+        expected.put(P0, 3L);
+        expected.put(P1, 3L);
+        expected.put(P2, 1L);
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine())) {
+            assertEquals(expected, store.restore());
+        }
+    }
+
+    @Test
+    void doesNotSnapshotAnEngineThatHeldStateBeforeTheReplay() throws Exception {
+        IndicatorEngine engine = engine();
+        engine.indicatorsFor("NVDA").update(100, 101, 99, 1);
+        replay(engine, WindowCheckpointer.openForReplay(directory, engine), 1).replay(1500, 5000);
+
+        try (WindowSnapshotStore store = new WindowSnapshotStore(directory, engine())) {
+            assertEquals(Collections.emptyMap(), store.restore());
+        }
+    }
+
+    private PriceActionReplay replay(IndicatorEngine engine, WindowCheckpointer checkpointer, int readers) {
+        return new PriceActionReplay(LogConsumer::new, new RollingAverageCalculator(tracer, engine, false),
+                BarAggregator.disabled(), checkpointer, PriceActionReplayTest::decode, tracer, readers, 16);
+    }
+
+    /** An engine whose only indicator records the closes it is updated with. */
+    private IndicatorEngine engine() {
+        return new IndicatorEngine(4, Arrays.asList(windowSize -> new Recording(),
+                Indicators.byName("ema")));
+    }
+
+    private static PriceAction decode(String topic, byte[] value) {
+        String[] fields = new String(value, StandardCharsets.UTF_8).split(",");
+        double close = Double.parseDouble(fields[1]);
+        LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(fields[0])), ZoneOffset.UTC);
+        return new PriceActionImpl(close, close, close, close, 1, date, "NVDA");
+    }
+
+    private final class Recording implements Indicator {
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public void update(PriceWindow window) {
+            applied.add(window.latestClose());
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public double value() {
+            return 0;
+        }
+    }
+
+    /** A consumer over {@link #LOG} that looks timestamps up like a broker. */
+    private static final class LogConsumer extends MockConsumer<String, byte[]> {
+        private LogConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+            List<PartitionInfo> partitions = new ArrayList<>();
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            for (Map.Entry<TopicPartition, double[][]> entry : LOG.entrySet()) {
+                partitions.add(new PartitionInfo(TOPIC, entry.getKey().partition(), null, null, null));
+                endOffsets.put(entry.getKey(), (long) entry.getValue().length);
+            }
+            updatePartitions(TOPIC, partitions);
+            updateEndOffsets(endOffsets);
+            schedulePollTask(() -> {
+                for (TopicPartition partition : assignment()) {
+                    double[][] records = LOG.get(partition);
+                    for (int offset = 0; offset < records.length; offset++) {
+                        String value = (long) records[offset][0] + "," + records[offset][1];
+                        addRecord(new ConsumerRecord<>(TOPIC, partition.partition(), offset, null,
+                                value.getBytes(StandardCharsets.UTF_8)));
+                    }
+                }
+            });
+        }
+
+        @Override
+        public synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(Map<TopicPartition, Long> timestamps) {
+            Map<TopicPartition, OffsetAndTimestamp> offsets = new HashMap<>();
+            timestamps.forEach((partition, timestamp) -> {
+                double[][] records = LOG.get(partition);
+                OffsetAndTimestamp found = null;
+                for (int offset = records.length - 1; offset >= 0; offset--) {
+                    if (records[offset][0] >= timestamp) {
+                        found = new OffsetAndTimestamp(offset, (long) records[offset][0]);
+                    }
+                }
+                offsets.put(partition, found);
+            });
+            return offsets;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.example.infrastructure.EnvConfig;
+import com.example.infrastructure.KafkaProducerClient;
+import com.example.infrastructure.MarketSimulator;
+import com.example.infrastructure.ProducerMetrics;
+import com.example.infrastructure.RandomPriceGenerator;
+import com.example.infrastructure.TickClock;
+import com.example.infrastructure.TracingConfig;
+import com.example.service.LoadGenerator;
+import com.example.service.PriceActionProducerService;
+import com.example.service.PriceFeeds;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+
+public class ProducerApp {
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        OpenTelemetry openTelemetry = TracingConfig.initialize("price-action-producer");
+        Tracer tracer = openTelemetry.getTracer("price-action-producer");
+
+        // Initialize components
+        MarketSimulator simulator = createSimulator();
+        RandomPriceGenerator priceGenerator = new RandomPriceGenerator(
+                tracer, TracingConfig.computeSpansEnabled(), simulator);
+        try (KafkaProducerClient producerClient = new KafkaProducerClient(tracer, ProducerMetrics.create(openTelemetry))) {
+            String mode = EnvConfig.getString("PRODUCER_MODE", "demo");
+            if ("load".equals(mode)) {
+                LoadGenerator loadGenerator = new LoadGenerator(producerClient, priceGenerator, tracer,
+                        EnvConfig.getDouble("PRODUCER_TARGET_RATE", 10000),
+                        EnvConfig.getLong("PRODUCER_DURATION_SECONDS", 60), TimeUnit.SECONDS,
+                        EnvConfig.getInt("PRODUCER_MAX_PENDING_SENDS", 10000));
+                loadGenerator.run();
+                return;
+            }
+
+            PriceActionProducerService service = new PriceActionProducerService(producerClient, priceGenerator, tracer);
+
+            if ("feeds".equals(mode)) {
+                PriceFeeds feeds = new PriceFeeds(service, tracer,
+                        parseList(EnvConfig.getString("PRODUCER_UNDERLYINGS", String.join(",", simulator.getSymbols()))),
+                        EnvConfig.getLong("PRODUCER_FEED_INTERVAL_MS", 1000),
+                        EnvConfig.getInt("PRODUCER_FEED_TICKS", 100));
+                feeds.run();
+                return;
+            }
+
+            // Produce some price actions
+            for (int i = 0; i < 100; i++) {
+                service.producePriceAction();
+                try {
+                    Thread.sleep(1000); // Wait 1 second between productions
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the simulator from SIMULATOR_* settings. Setting SIMULATOR_SEED
+     * makes runs reproducible and switches the default clock to a synthetic one.
+     */
+    private static MarketSimulator createSimulator() {
+        String symbols = EnvConfig.getString("SIMULATOR_SYMBOLS", "");
+        List<String> symbolList = symbols.isEmpty()
+                ? MarketSimulator.symbols(EnvConfig.getInt("SIMULATOR_SYMBOL_COUNT", MarketSimulator.DEFAULT_SYMBOLS.size()))
+                : parseList(symbols);
+        String seed = EnvConfig.getString("SIMULATOR_SEED", "");
+        String clockType = EnvConfig.getString("SIMULATOR_CLOCK", seed.isEmpty() ? "monotonic" : "synthetic");
+        TickClock clock = "synthetic".equals(clockType)
+                ? TickClock.synthetic(LocalDateTime.of(2024, 1, 2, 9, 30), EnvConfig.getLong("SIMULATOR_TICK_NANOS", 1_000_000L))
+                : TickClock.monotonic();
+        return new MarketSimulator(symbolList, seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed), clock,
+                EnvConfig.getDouble("SIMULATOR_VOLATILITY", MarketSimulator.DEFAULT_VOLATILITY));
+    }
+
+    private static List<String> parseList(String value) {
+        return Arrays.asList(value.trim().split("\\s*,\\s*"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.infrastructure;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Partitions price actions by underlying, like the default partitioner, except
+ * for configured hot underlyings, which are spread over several consecutive
+ * partitions starting at the one their key hashes to. A hot underlying stays on
+ * one of its partitions for a run of records before moving to the next, so its
+ * sends still fill whole batches instead of one record per partition.
+ *
+ * <p>Spreading gives up the per-partition order of a hot underlying, so its
+ * records should carry {@link SequenceHeaderCodec} sequence numbers for the
+ * consumer to reorder by. Every other underlying keeps all of its records, in
+ * order, on a single partition.
+ *
+ * <p>Configured through producer properties:
+ * <ul>
+ *   <li>{@value #HOT_SYMBOLS_CONFIG}: comma-separated underlyings, each optionally
+ *       followed by {@code :spread}, e.g. {@code NVDA:4,TSLA},</li>
+ *   <li>{@value #SPREAD_CONFIG}: partitions per hot underlying without an explicit spread, default 4,</li>
+ *   <li>{@value #RUN_LENGTH_CONFIG}: records sent to one partition before moving on, default 100.</li>
+ * </ul>
+ */
+public class HotKeyAwarePartitioner implements Partitioner {
+    public static final String HOT_SYMBOLS_CONFIG = "price-action.hot-symbols";
+    public static final String SPREAD_CONFIG = "price-action.hot-symbol-spread";
+    public static final String RUN_LENGTH_CONFIG = "price-action.hot-symbol-run-length";
+
+    private Map<String, HotSymbol> hotSymbols = Collections.emptyMap();
+    private int runLength = 100;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        int defaultSpread = intConfig(configs, SPREAD_CONFIG, 4);
+        runLength = intConfig(configs, RUN_LENGTH_CONFIG, runLength);
+        if (defaultSpread <= 0 || runLength <= 0) {
+            throw new IllegalArgumentException(SPREAD_CONFIG + " and " + RUN_LENGTH_CONFIG + " must be positive");
+        }
+        Object symbols = configs.get(HOT_SYMBOLS_CONFIG);
+        hotSymbols = parse(symbols == null ? "" : symbols.toString(), defaultSpread);
+    }
+
+    /** Parses {@code SYMBOL[:spread],...} into hot symbols, keyed by underlying. */
+    private static Map<String, HotSymbol> parse(String value, int defaultSpread) {
+        Map<String, HotSymbol> parsed = new HashMap<>();
+        for (String entry : value.trim().split("\\s*,\\s*")) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            String symbol = colon < 0 ? entry : entry.substring(0, colon);
+            int spread = colon < 0 ? defaultSpread : Integer.parseInt(entry.substring(colon + 1));
+            if (spread <= 0) {
+                throw new IllegalArgumentException("Invalid spread for hot symbol: " + entry);
+            }
+            parsed.put(symbol, new HotSymbol(spread));
+        }
+        return parsed;
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        List<PartitionInfo> partitions = cluster.partitionsForTopic(topic);
+        int numPartitions = partitions.size();
+        if (keyBytes == null) {
+            return ThreadLocalRandom.current().nextInt(numPartitions);
+        }
+        int home = Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+        HotSymbol hot = key == null ? null : hotSymbols.get(key.toString());
+        if (hot == null) {
+            return home;
+        }
+        int spread = Math.min(hot.spread, numPartitions);
+        long run = hot.sent.getAndIncrement() / runLength;
+        return (int) ((home + run % spread) % numPartitions);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int intConfig(Map<String, ?> configs, String name, int defaultValue) {
+        Object value = configs.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    private static final class HotSymbol {
+        private final int spread;
+        private final AtomicLong sent = new AtomicLong();
+
+        private HotSymbol(int spread) {
+            this.spread = spread;
+        }
+    }
+}
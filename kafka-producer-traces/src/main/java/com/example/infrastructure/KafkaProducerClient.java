@@ -2,7 +2,10 @@ package com.example.infrastructure;
 
 import java.util.Properties;
 
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
@@ -10,84 +13,144 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.example.domain.PriceAction;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
-import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
-import io.opentelemetry.context.propagation.TextMapSetter;
 
-public class KafkaProducerClient {
+public class KafkaProducerClient implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(KafkaProducerClient.class);
-    private final KafkaProducer<String, String> producer;
+    private final Producer<String, PriceAction> producer;
     private final Tracer tracer;
+    private final ProducerMetrics metrics;
+    private final SymbolSequencer sequencer;
+    private final PartitionSendStats partitionStats = new PartitionSendStats();
+    private final LogSampler sentLog = LogSampler.create();
     private final String topic = "price-action";
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    // OpenTelemetry context propagator
-    private final TextMapSetter<Headers> headerSetter = (headers, key, value) -> {
-        if (headers != null && key != null && value != null) {
-            headers.add(key, value.getBytes());
-        }
-    };
 
     public KafkaProducerClient(Tracer tracer) {
+        this(tracer, ProducerMetrics.create(OpenTelemetry.noop()));
+    }
+
+    public KafkaProducerClient(Tracer tracer, ProducerMetrics metrics) {
+        this(tracer, new KafkaProducer<>(createProperties()), metrics);
+    }
+
+    /** Uses the given producer, which must serialize values with {@link PriceActionSerializer}. */
+    public KafkaProducerClient(Tracer tracer, Producer<String, PriceAction> producer) {
+        this(tracer, producer, ProducerMetrics.create(OpenTelemetry.noop()));
+    }
+
+    public KafkaProducerClient(Tracer tracer, Producer<String, PriceAction> producer, ProducerMetrics metrics) {
+        this(tracer, producer, metrics, SymbolSequencer.create());
+    }
+
+    public KafkaProducerClient(Tracer tracer, Producer<String, PriceAction> producer, ProducerMetrics metrics,
+                               SymbolSequencer sequencer) {
         this.tracer = tracer;
+        this.producer = producer;
+        this.metrics = metrics;
+        this.sequencer = sequencer;
+    }
+
+    private static Properties createProperties() {
         Properties props = new Properties();
         String bootstrapServers = System.getenv("KAFKA_BOOTSTRAP_SERVERS") != null ?
             System.getenv("KAFKA_BOOTSTRAP_SERVERS") : "application-kafka-bootstrap.kafka:9092";
         props.put("bootstrap.servers", bootstrapServers);
         props.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-        props.put("value.serializer", "org.apache.kafka.common.serialization.StringSerializer");
-        this.producer = new KafkaProducer<>(props);
+        props.put("value.serializer", PriceActionSerializer.class.getName());
+        props.put(PriceActionWireFormat.FORMAT_CONFIG,
+            System.getenv("PRICE_ACTION_FORMAT") != null ?
+            System.getenv("PRICE_ACTION_FORMAT") : PriceActionWireFormat.JSON);
+
+        // Throughput settings, defaulting to the Kafka client defaults
+        props.put(ProducerConfig.LINGER_MS_CONFIG, EnvConfig.getInt("PRODUCER_LINGER_MS", 0));
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, EnvConfig.getInt("PRODUCER_BATCH_SIZE", 16384));
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, EnvConfig.getString("PRODUCER_COMPRESSION_TYPE", "none"));
+        props.put(ProducerConfig.ACKS_CONFIG, EnvConfig.getString("PRODUCER_ACKS", "all"));
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION,
+            EnvConfig.getInt("PRODUCER_MAX_IN_FLIGHT_REQUESTS", 5));
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, EnvConfig.getLong("PRODUCER_BUFFER_MEMORY", 33554432L));
 
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Hot underlyings are spread over several partitions; all others keep the default key hashing
+        String hotSymbols = EnvConfig.getString("PRODUCER_HOT_SYMBOLS", "");
+        if (!hotSymbols.trim().isEmpty()) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, HotKeyAwarePartitioner.class.getName());
+            props.put(HotKeyAwarePartitioner.HOT_SYMBOLS_CONFIG, hotSymbols);
+            props.put(HotKeyAwarePartitioner.SPREAD_CONFIG, EnvConfig.getInt("PRODUCER_HOT_SYMBOL_SPREAD", 4));
+            props.put(HotKeyAwarePartitioner.RUN_LENGTH_CONFIG, EnvConfig.getInt("PRODUCER_HOT_SYMBOL_RUN_LENGTH", 100));
+        }
+        return props;
     }
 
     public void sendPriceAction(PriceAction priceAction){
+        sendPriceAction(priceAction, null);
+    }
+
+    /**
+     * Sends the price action asynchronously. The callback, if any, is invoked
+     * exactly once: by the producer when the broker acks or rejects the record,
+     * or directly if the send fails before reaching the producer.
+     */
+    public void sendPriceAction(PriceAction priceAction, Callback callback){
         Span span = tracer.spanBuilder("infrastructure.send-price-action")
                 .startSpan();
                 
         try (Scope scope = span.makeCurrent()) {
             span.setAttribute("underlying", priceAction.getUnderlying());
-            
-            String jsonValue;
-            try {
-                jsonValue = objectMapper.writeValueAsString(priceAction);
-            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
-                span.recordException(e);
-                logger.error("Error serializing price action to JSON", e);
-                throw e; // or handle it differently if needed
-            }
 
-            // Create record with headers
+            // Create record with headers carrying the send span's trace context
             Headers headers = new RecordHeaders();
-            
-            // Inject trace context into headers
-            io.opentelemetry.context.Context.current()
-                .with(span)
-                .makeCurrent();
-
-            io.opentelemetry.api.GlobalOpenTelemetry.getPropagators()
-                .getTextMapPropagator()
-                .inject(Context.current(), headers, headerSetter);
+            TraceHeaderCodec.inject(span.getSpanContext(), headers);
+            sequencer.stamp(priceAction.getUnderlying(), headers);
 
-            ProducerRecord<String, String> record = 
-                new ProducerRecord<>(topic, null, priceAction.getUnderlying(), jsonValue, headers);
+            ProducerRecord<String, PriceAction> record = 
+                new ProducerRecord<>(topic, null, priceAction.getUnderlying(), priceAction, headers);
             
-            producer.send(record);
-            logger.info("Sent price action for {} with traceId: {}", 
-                priceAction.getUnderlying(), 
-                span.getSpanContext().getTraceId());
+            long sendStart = System.nanoTime();
+            producer.send(record, (metadata, exception) -> {
+                if (exception == null) {
+                    partitionStats.record(metadata.partition());
+                    metrics.recordAcked(metadata.partition(), Math.max(0, metadata.serializedKeySize())
+                            + Math.max(0, metadata.serializedValueSize()), System.nanoTime() - sendStart);
+                } else {
+                    metrics.recordError();
+                }
+                if (callback != null) {
+                    callback.onCompletion(metadata, exception);
+                }
+            });
+            metrics.recordSent(System.nanoTime() - sendStart);
+            long summarized = sentLog.sample();
+            if (summarized > 0) {
+                logger.info("Sent {} price actions since the last summary. Latest {} with traceId: {}",
+                    summarized, priceAction.getUnderlying(),
+                    span.getSpanContext().getTraceId());
+                String partitionRates = partitionStats.summarize();
+                if (partitionRates != null) {
+                    logger.info("Acked per partition: {}", partitionRates);
+                }
+            }
         } catch (Exception e) {
             span.recordException(e);
             logger.error("Error sending price action", e);
+            metrics.recordError();
+            if (callback != null) {
+                callback.onCompletion(null, e);
+            }
         } finally {
             span.end();
         }
     }
+
+    public void flush() {
+        producer.flush();
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.example.infrastructure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionImpl;
+
+/**
+ * Simulates ticks for many symbols, each following its own geometric Brownian
+ * motion: every tick opens at the previous close and closes at
+ * {@code open * exp(-sigma^2 / 2 + sigma * z)}, with a high and low spread
+ * around both. The state of every symbol lives in parallel primitive arrays.
+ *
+ * <p>Every symbol has its own {@link SplittableRandom}, split from one root
+ * generator, so symbols can be driven from different threads (one thread per
+ * symbol at a time) and a fixed seed reproduces the same paths regardless of
+ * how ticks of different symbols interleave. The clock is given each symbol's
+ * own tick count, so with a {@link TickClock#synthetic synthetic clock} the
+ * timestamps are reproduced as well and a seeded run is fully deterministic
+ * per symbol, however many threads drive it.
+ */
+public class MarketSimulator {
+    /** The symbols the original generator had price ranges for. */
+    public static final List<String> DEFAULT_SYMBOLS = Arrays.asList("AAPL", "TSLA", "TLT", "VIX", "RUT", "NVDA");
+
+    public static final double DEFAULT_VOLATILITY = 0.001;
+
+    private final String[] symbols;
+    private final Map<String, Integer> indexes;
+    private final double[] prices;
+    private final double[] volatilities;
+    private final int[] baseVolumes;
+    private final double[] spareGaussians;
+    private final boolean[] hasSpareGaussian;
+    private final long[] ticks;
+    private final SplittableRandom[] randoms;
+    private final SplittableRandom selector;
+    private final TickClock clock;
+
+    /**
+     * @param volatility mean per-tick volatility; each symbol gets between half and one and a half times it
+     */
+    public MarketSimulator(List<String> symbols, long seed, TickClock clock, double volatility) {
+        int count = symbols.size();
+        this.symbols = symbols.toArray(new String[0]);
+        this.indexes = new HashMap<>(count * 2);
+        this.prices = new double[count];
+        this.volatilities = new double[count];
+        this.baseVolumes = new int[count];
+        this.spareGaussians = new double[count];
+        this.hasSpareGaussian = new boolean[count];
+        this.ticks = new long[count];
+        this.randoms = new SplittableRandom[count];
+        this.clock = clock;
+
+        SplittableRandom root = new SplittableRandom(seed);
+        this.selector = root.split();
+        for (int i = 0; i < count; i++) {
+            indexes.put(this.symbols[i], i);
+            randoms[i] = root.split();
+            double minPrice = minPrice(this.symbols[i]);
+            double maxPrice = maxPrice(this.symbols[i]);
+            prices[i] = minPrice + randoms[i].nextDouble() * (maxPrice - minPrice);
+            volatilities[i] = volatility * (0.5 + randoms[i].nextDouble());
+            baseVolumes[i] = 1000 * (1 + randoms[i].nextInt(1000));
+        }
+    }
+
+    /**
+     * The default symbols followed by generated ones ({@code SYM00000}, ...) up
+     * to {@code count} symbols in total, or the first {@code count} defaults.
+     */
+    public static List<String> symbols(int count) {
+        List<String> symbols = new ArrayList<>(DEFAULT_SYMBOLS.subList(0, Math.min(count, DEFAULT_SYMBOLS.size())));
+        for (int i = 0; symbols.size() < count; i++) {
+            symbols.add(String.format("SYM%05d", i));
+        }
+        return symbols;
+    }
+
+    public List<String> getSymbols() {
+        return Arrays.asList(symbols);
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    /** Index of a randomly chosen symbol. Only call from one thread at a time. */
+    public int randomIndex() {
+        return selector.nextInt(symbols.length);
+    }
+
+    public int indexOf(String symbol) {
+        Integer index = indexes.get(symbol);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown symbol: " + symbol);
+        }
+        return index;
+    }
+
+    /** Next tick of a randomly chosen symbol. Only call from one thread at a time. */
+    public PriceAction next() {
+        return next(randomIndex());
+    }
+
+    public PriceAction next(String symbol) {
+        return next(indexOf(symbol));
+    }
+
+    /** Next tick of the symbol at {@code index}; ticks of one symbol must not be generated concurrently. */
+    public PriceAction next(int index) {
+        SplittableRandom random = randoms[index];
+        double sigma = volatilities[index];
+        double open = prices[index];
+        double close = open * Math.exp(-0.5 * sigma * sigma + sigma * nextGaussian(index));
+        double high = Math.max(open, close) * (1.0 + 0.5 * sigma * random.nextDouble());
+        double low = Math.min(open, close) * (1.0 - 0.5 * sigma * random.nextDouble());
+        int volume = (int) (baseVolumes[index] * (0.5 + random.nextDouble()));
+        prices[index] = close;
+        return new PriceActionImpl(open, close, high, low, volume,
+                EpochNanos.toLocalDateTime(clock.epochNanos(ticks[index]++)), symbols[index]);
+    }
+
+    /** Standard normal variate by the Marsaglia polar method, which yields two per round. */
+    private double nextGaussian(int index) {
+        if (hasSpareGaussian[index]) {
+            hasSpareGaussian[index] = false;
+            return spareGaussians[index];
+        }
+        SplittableRandom random = randoms[index];
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2.0 * random.nextDouble() - 1.0;
+            v = 2.0 * random.nextDouble() - 1.0;
+            s = u * u + v * v;
+        } while (s >= 1.0 || s == 0.0);
+        double scale = Math.sqrt(-2.0 * Math.log(s) / s);
+        spareGaussians[index] = v * scale;
+        hasSpareGaussian[index] = true;
+        return u * scale;
+    }
+
+    private static double minPrice(String symbol) {
+        switch (symbol) {
+            case "AAPL":
+                return 160.0;
+            case "TSLA":
+                return 250.0;
+            case "TLT":
+                return 80.0;
+            case "VIX":
+                return 14.0;
+            case "RUT":
+                return 1750.0;
+            default:
+                return 100.0;
+        }
+    }
+
+    private static double maxPrice(String symbol) {
+        switch (symbol) {
+            case "AAPL":
+                return 260.0;
+            case "TSLA":
+                return 400.0;
+            case "TLT":
+                return 95.0;
+            case "VIX":
+                return 28.0;
+            case "RUT":
+                return 2100.0;
+            case "NVDA":
+                return 200.0;
+            default:
+                return 1100.0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.infrastructure;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts acknowledged sends per partition between summaries, to show how evenly
+ * keys, and hot underlyings in particular, load the topic. Safe to share
+ * between threads.
+ */
+public final class PartitionSendStats {
+    private volatile LongAdder[] counts = new LongAdder[0];
+    private long lastSummary = System.nanoTime();
+
+    public void record(int partition) {
+        if (partition < 0) {
+            return;
+        }
+        LongAdder[] current = counts;
+        if (partition >= current.length) {
+            current = grow(partition + 1);
+        }
+        current[partition].increment();
+    }
+
+    private synchronized LongAdder[] grow(int length) {
+        LongAdder[] current = counts;
+        if (length <= current.length) {
+            return current;
+        }
+        LongAdder[] grown = new LongAdder[length];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        for (int i = current.length; i < length; i++) {
+            grown[i] = new LongAdder();
+        }
+        counts = grown;
+        return grown;
+    }
+
+    /**
+     * Sends per second of every partition since the previous summary, and the
+     * ratio of the busiest partition to the mean, then starts a new interval.
+     * Returns null if nothing has been acknowledged yet.
+     */
+    public synchronized String summarize() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1, now - lastSummary) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastSummary = now;
+        LongAdder[] current = counts;
+        if (current.length == 0) {
+            return null;
+        }
+        StringBuilder summary = new StringBuilder();
+        long total = 0;
+        long max = 0;
+        for (int partition = 0; partition < current.length; partition++) {
+            long sent = current[partition].sumThenReset();
+            total += sent;
+            max = Math.max(max, sent);
+            summary.append(partition == 0 ? "" : ", ")
+                    .append(partition).append('=').append(Math.round(sent / seconds)).append("/s");
+        }
+        double mean = total / (double) current.length;
+        return summary.append(String.format(" (max/mean %.2f)", mean > 0 ? max / mean : 0.0)).toString();
+    }
+}
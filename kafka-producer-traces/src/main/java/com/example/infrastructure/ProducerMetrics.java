@@ -0,0 +1,93 @@
+package com.example.infrastructure;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * The producer's OpenTelemetry metrics. Instruments are created once and
+ * always recorded with the same {@link Attributes} instance, so recording on
+ * the hot path allocates nothing; the SDK still looks up the aggregation of
+ * that attribute set on every add or record. Acks are counted per partition,
+ * with one cached instance per partition.
+ */
+public class ProducerMetrics {
+    private static final AttributeKey<Long> PARTITION = AttributeKey.longKey("partition");
+
+    private final Attributes attributes = Attributes.empty();
+    private volatile Attributes[] partitionAttributes = new Attributes[0];
+    private final LongCounter sent;
+    private final LongCounter acked;
+    private final LongCounter bytes;
+    private final LongCounter errors;
+    private final DoubleHistogram sendDuration;
+    private final DoubleHistogram ackLatency;
+
+    public ProducerMetrics(Meter meter) {
+        sent = meter.counterBuilder("price_action.producer.sent")
+                .setDescription("Price actions handed to the Kafka producer")
+                .build();
+        acked = meter.counterBuilder("price_action.producer.acked")
+                .setDescription("Price actions acknowledged by the broker")
+                .build();
+        bytes = meter.counterBuilder("price_action.producer.bytes")
+                .setDescription("Serialized key and value bytes acknowledged by the broker")
+                .setUnit("By")
+                .build();
+        errors = meter.counterBuilder("price_action.producer.errors")
+                .setDescription("Sends that failed or were rejected")
+                .build();
+        sendDuration = LatencyHistograms.create(meter, "price_action.producer.send.duration",
+                "Time spent in the send call, including serialization and any wait for buffer space");
+        ackLatency = LatencyHistograms.create(meter, "price_action.producer.ack.latency",
+                "Time from the send call to the broker acknowledgement");
+    }
+
+    /** Metrics recorded through the given instance, which records nothing unless a meter provider is installed. */
+    public static ProducerMetrics create(OpenTelemetry openTelemetry) {
+        return new ProducerMetrics(openTelemetry.getMeter("price-action-producer"));
+    }
+
+    public void recordSent(long sendNanos) {
+        sent.add(1, attributes);
+        sendDuration.record(sendNanos / 1_000_000.0, attributes);
+    }
+
+    public void recordAcked(int partition, int serializedSize, long ackNanos) {
+        acked.add(1, partitionAttributes(partition));
+        bytes.add(serializedSize, attributes);
+        ackLatency.record(ackNanos / 1_000_000.0, attributes);
+    }
+
+    public void recordError() {
+        errors.add(1, attributes);
+    }
+
+    private Attributes partitionAttributes(int partition) {
+        Attributes[] current = partitionAttributes;
+        if (partition < 0) {
+            return attributes;
+        }
+        if (partition >= current.length) {
+            current = growPartitionAttributes(partition + 1);
+        }
+        return current[partition];
+    }
+
+    private synchronized Attributes[] growPartitionAttributes(int length) {
+        Attributes[] current = partitionAttributes;
+        if (length <= current.length) {
+            return current;
+        }
+        Attributes[] grown = new Attributes[length];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        for (int i = current.length; i < length; i++) {
+            grown[i] = Attributes.of(PARTITION, (long) i);
+        }
+        partitionAttributes = grown;
+        return grown;
+    }
+}
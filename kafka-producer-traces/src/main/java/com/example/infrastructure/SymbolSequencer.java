@@ -0,0 +1,58 @@
+package com.example.infrastructure;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Stamps outgoing records with a per-underlying {@link SequenceHeaderCodec}
+ * sequence number under a random source id, so a consumer can restore the send
+ * order of an underlying that {@link HotKeyAwarePartitioner} spread over several
+ * partitions. Safe to share between threads.
+ */
+public class SymbolSequencer {
+    private static final SymbolSequencer DISABLED = new SymbolSequencer(false);
+
+    private final boolean enabled;
+    private final long source = ThreadLocalRandom.current().nextLong();
+    private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    private SymbolSequencer(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static SymbolSequencer enabled() {
+        return new SymbolSequencer(true);
+    }
+
+    public static SymbolSequencer disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * A sequencer enabled by {@code PRODUCER_SEQUENCE_HEADERS}, which defaults to
+     * on whenever {@code PRODUCER_HOT_SYMBOLS} spreads any underlying.
+     */
+    public static SymbolSequencer create() {
+        boolean spreading = !EnvConfig.getString("PRODUCER_HOT_SYMBOLS", "").trim().isEmpty();
+        return EnvConfig.getBoolean("PRODUCER_SEQUENCE_HEADERS", spreading) ? enabled() : disabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Adds the next sequence number of the underlying to the headers, if enabled. */
+    public void stamp(String underlying, Headers headers) {
+        if (!enabled) {
+            return;
+        }
+        AtomicLong sequence = sequences.get(underlying);
+        if (sequence == null) {
+            sequence = sequences.computeIfAbsent(underlying, symbol -> new AtomicLong());
+        }
+        SequenceHeaderCodec.inject(source, sequence.getAndIncrement(), headers);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.infrastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small structured-concurrency scope in the spirit of the JDK's
+ * {@code StructuredTaskScope}, which is still a preview API: tasks forked in
+ * the scope run on the scope's executor, {@link #join} waits for all of them
+ * and fails fast on the first error by cancelling the rest, and closing the
+ * scope cancels and waits for every task. A thread interrupted while closing
+ * stops waiting and keeps its interrupt flag set.
+ */
+public class TaskScope implements AutoCloseable {
+    private final ExecutorService executor;
+    private final CompletionService<Object> completion;
+    private final List<Future<Object>> tasks = new ArrayList<>();
+
+    public TaskScope(ExecutorService executor) {
+        this.executor = executor;
+        this.completion = new ExecutorCompletionService<>(executor);
+    }
+
+    public <T> Future<Object> fork(Callable<T> task) {
+        Future<Object> future = completion.submit(task::call);
+        tasks.add(future);
+        return future;
+    }
+
+    /**
+     * Waits until every forked task has completed. If one fails, the others
+     * are cancelled and its exception is rethrown.
+     */
+    public void join() throws InterruptedException, ExecutionException {
+        try {
+            for (int remaining = tasks.size(); remaining > 0; remaining--) {
+                completion.take().get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancelAll() {
+        for (Future<Object> task : tasks) {
+            task.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.infrastructure;
+
+import java.time.LocalDateTime;
+
+import com.example.domain.EpochNanos;
+
+/**
+ * Timestamps for simulated ticks, as UTC epoch nanoseconds.
+ */
+public interface TickClock {
+    /** Timestamp of a symbol's tick, given how many ticks of that symbol came before it. */
+    long epochNanos(long symbolTick);
+
+    /**
+     * Wall-clock time read once at creation and advanced by {@link System#nanoTime},
+     * so timestamps never go backwards and no clock or zone lookup happens per tick.
+     */
+    static TickClock monotonic() {
+        long originNanos = System.currentTimeMillis() * 1_000_000L;
+        long originTicks = System.nanoTime();
+        return symbolTick -> originNanos + (System.nanoTime() - originTicks);
+    }
+
+    /**
+     * A clock that starts every symbol at {@code start} and advances it by
+     * exactly {@code stepNanos} per tick of that symbol, so timestamps do not
+     * depend on how the ticks of different symbols interleave.
+     */
+    static TickClock synthetic(LocalDateTime start, long stepNanos) {
+        long originNanos = EpochNanos.of(start);
+        return symbolTick -> originNanos + symbolTick * stepNanos;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.domain.PriceAction;
+import com.example.infrastructure.KafkaProducerClient;
+import com.example.infrastructure.LatencyHistogram;
+import com.example.infrastructure.RandomPriceGenerator;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Drives the producer at a target rate for a fixed duration. Sends are
+ * asynchronous and bounded by a semaphore, so a slow broker blocks the
+ * generator instead of letting unacknowledged records pile up in memory.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private final KafkaProducerClient producerClient;
+    private final RandomPriceGenerator priceGenerator;
+    private final Tracer tracer;
+    private final double targetRate;
+    private final long durationNanos;
+    private final int maxPendingSends;
+
+    public LoadGenerator(KafkaProducerClient producerClient,
+                         RandomPriceGenerator priceGenerator,
+                         Tracer tracer,
+                         double targetRate,
+                         long duration,
+                         TimeUnit durationUnit,
+                         int maxPendingSends) {
+        if (targetRate <= 0) {
+            throw new IllegalArgumentException("targetRate must be positive: " + targetRate);
+        }
+        this.producerClient = producerClient;
+        this.priceGenerator = priceGenerator;
+        this.tracer = tracer;
+        this.targetRate = targetRate;
+        this.durationNanos = durationUnit.toNanos(duration);
+        this.maxPendingSends = maxPendingSends;
+    }
+
+    public void run() throws InterruptedException {
+        Span span = tracer.spanBuilder("service.generate-load")
+                .setAttribute("targetRate", targetRate)
+                .setAttribute("maxPendingSends", maxPendingSends)
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            Semaphore pendingSends = new Semaphore(maxPendingSends);
+            LatencyHistogram ackLatencies = new LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRate;
+
+            long start = System.nanoTime();
+            long deadline = start + durationNanos;
+            long sent = 0;
+            long blockedNanos = 0;
+
+            while (true) {
+                long scheduled = start + (long) (sent * intervalNanos);
+                if (scheduled >= deadline) {
+                    break;
+                }
+                long now = System.nanoTime();
+                if (scheduled > now) {
+                    LockSupport.parkNanos(scheduled - now);
+                }
+
+                if (!pendingSends.tryAcquire()) {
+                    long blockedAt = System.nanoTime();
+                    pendingSends.acquire();
+                    blockedNanos += System.nanoTime() - blockedAt;
+                }
+
+                PriceAction priceAction = priceGenerator.generateRandomPriceAction();
+                long sendStart = System.nanoTime();
+                producerClient.sendPriceAction(priceAction, (metadata, exception) -> {
+                    ackLatencies.record(System.nanoTime() - sendStart);
+                    if (exception != null) {
+                        errors.incrementAndGet();
+                    }
+                    pendingSends.release();
+                });
+                sent++;
+            }
+
+            producerClient.flush();
+            pendingSends.acquire(maxPendingSends);
+            long elapsed = System.nanoTime() - start;
+
+            double achievedRate = sent / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+            span.setAttribute("sent", sent);
+            span.setAttribute("errors", errors.get());
+            span.setAttribute("achievedRate", achievedRate);
+            logger.info("Load run finished: sent={} errors={} elapsed={}ms target={}/s achieved={}/s backpressure={}ms",
+                    sent, errors.get(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    String.format("%.0f", targetRate), String.format("%.0f", achievedRate),
+                    TimeUnit.NANOSECONDS.toMillis(blockedNanos));
+            logger.info("Ack latency (us): p50={} p90={} p99={} p99.9={} max={}",
+                    micros(ackLatencies.getPercentile(0.50)), micros(ackLatencies.getPercentile(0.90)),
+                    micros(ackLatencies.getPercentile(0.99)), micros(ackLatencies.getPercentile(0.999)),
+                    micros(ackLatencies.getMax()));
+        } catch (InterruptedException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -11,13 +11,13 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 
-public class PriceActionService {
-    private static final Logger logger = LoggerFactory.getLogger(PriceActionService.class);
+public class PriceActionProducerService {
+    private static final Logger logger = LoggerFactory.getLogger(PriceActionProducerService.class);
     private final KafkaProducerClient producerClient;
     private final RandomPriceGenerator priceGenerator;
     private final Tracer tracer;
 
-    public PriceActionService(KafkaProducerClient producerClient, 
+    public PriceActionProducerService(KafkaProducerClient producerClient, 
                             RandomPriceGenerator priceGenerator,
                             Tracer tracer) {
         this.producerClient = producerClient;
@@ -26,12 +26,19 @@ public class PriceActionService {
     }
 
     public void producePriceAction() {
+        producePriceAction(null);
+    }
+
+    /** Produces a price action for the given underlying, or a random one if it is null. */
+    public void producePriceAction(String underlying) {
         Span span = tracer.spanBuilder("service.produce-price-action")
                 .startSpan();
         try (Scope scope = span.makeCurrent()) {
-            PriceAction priceAction = priceGenerator.generateRandomPriceAction();
+            PriceAction priceAction = underlying != null
+                    ? priceGenerator.generateRandomPriceAction(underlying)
+                    : priceGenerator.generateRandomPriceAction();
             producerClient.sendPriceAction(priceAction);
-            logger.info("Successfully produced price action for {}", 
+            logger.debug("Successfully produced price action for {}", 
                        priceAction.getUnderlying());
         } catch (Exception e) {
             span.recordException(e);
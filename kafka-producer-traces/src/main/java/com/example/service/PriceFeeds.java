@@ -0,0 +1,68 @@
+package com.example.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.infrastructure.TaskScope;
+import com.example.infrastructure.VirtualThreads;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Runs one feed per underlying, each on its own virtual thread when the JDK
+ * supports them. Every feed produces a price action, sleeps for the interval
+ * and repeats, so feeds block independently instead of sharing a pool.
+ */
+public class PriceFeeds {
+    private static final Logger logger = LoggerFactory.getLogger(PriceFeeds.class);
+    private final PriceActionProducerService priceActionService;
+    private final Tracer tracer;
+    private final List<String> underlyings;
+    private final long intervalMs;
+    private final int ticksPerFeed;
+
+    public PriceFeeds(PriceActionProducerService priceActionService, Tracer tracer, List<String> underlyings,
+                      long intervalMs, int ticksPerFeed) {
+        this.priceActionService = priceActionService;
+        this.tracer = tracer;
+        this.underlyings = underlyings;
+        this.intervalMs = intervalMs;
+        this.ticksPerFeed = ticksPerFeed;
+    }
+
+    public void run() throws InterruptedException, ExecutionException {
+        Span span = tracer.spanBuilder("service.run-price-feeds")
+                .setAttribute("feeds", underlyings.size())
+                .setAttribute("virtualThreads", VirtualThreads.isAvailable())
+                .startSpan();
+        try (Scope scope = span.makeCurrent();
+             TaskScope feeds = new TaskScope(VirtualThreads.newTaskExecutor("price-feed"))) {
+            logger.info("Starting {} price feeds on {} threads", underlyings.size(),
+                    VirtualThreads.isAvailable() ? "virtual" : "platform");
+            for (String underlying : underlyings) {
+                feeds.fork(() -> {
+                    feed(underlying);
+                    return null;
+                });
+            }
+            feeds.join();
+        } catch (InterruptedException | ExecutionException e) {
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private void feed(String underlying) throws InterruptedException {
+        for (int i = 0; i < ticksPerFeed; i++) {
+            priceActionService.producePriceAction(underlying);
+            Thread.sleep(intervalMs);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionImpl;
+
+/** Deterministic sample ticks for the benchmarks. */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static PriceAction[] ticks(int count, int underlyings, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 2, 9, 30);
+        PriceAction[] ticks = new PriceAction[count];
+        for (int i = 0; i < count; i++) {
+            double close = 100.0 + random.nextGaussian() * 5.0;
+            double high = close + random.nextDouble() * 2.0;
+            double low = close - random.nextDouble() * 2.0;
+            double open = low + random.nextDouble() * (high - low);
+            ticks[i] = new PriceActionImpl(open, close, high, low, random.nextInt(1000) * 1000,
+                    start.plusNanos(i * 1_000_000L), "SYM" + (i % underlyings));
+        }
+        return ticks;
+    }
+}
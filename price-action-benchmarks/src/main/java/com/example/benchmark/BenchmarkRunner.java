@@ -0,0 +1,25 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Runs JMH with the GC profiler enabled,
+ * so every result also reports allocations per operation
+ * ({@code gc.alloc.rate.norm}). Any JMH command-line options can be passed,
+ * e.g. {@code java -jar benchmarks.jar RollingWindowBenchmark -p windowSize=50}.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-prof")) {
+            options.add("-prof");
+            options.add("gc");
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
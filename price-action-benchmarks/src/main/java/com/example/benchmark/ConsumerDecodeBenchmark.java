@@ -0,0 +1,130 @@
+package com.example.benchmark;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+import com.example.domain.SymbolTable;
+import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.PriceActionDecoder;
+import com.example.infrastructure.PriceActionDeserializer;
+import com.example.infrastructure.PriceActionSerializer;
+import com.example.infrastructure.PriceActionWireFormat;
+import com.example.infrastructure.StreamingPriceActionDecoder;
+import com.example.infrastructure.SymbolCache;
+import com.example.infrastructure.TreePriceActionDecoder;
+import com.example.presentation.RollingAverageCalculator;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.Indicators;
+import com.example.service.PriceActionService;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Consumer-side decoding with each decoder ({@code tree} and {@code streaming}
+ * JSON, {@code binary}), on its own, into a columnar {@link PriceActionBatch},
+ * and as part of the full {@link PriceActionService#processRecord} path. Only
+ * the latter depends on {@link TracingState}, so the decode-only benchmarks
+ * run once per decoder rather than once per tracing setup as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsumerDecodeBenchmark {
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class DecodeState {
+        @Param({"tree", "streaming", "binary"})
+        public String decoder;
+
+        private PriceActionDeserializer deserializer;
+        private PriceActionBatch batch;
+        private PriceAction priceAction;
+        private byte[] value;
+        private RecordHeaders headers;
+
+        @Setup
+        public void setUp() {
+            SymbolCache symbols = new SymbolCache();
+            PriceActionDecoder jsonDecoder = "tree".equals(decoder)
+                    ? new TreePriceActionDecoder()
+                    : new StreamingPriceActionDecoder(symbols);
+            deserializer = new PriceActionDeserializer(jsonDecoder, symbols);
+            batch = new PriceActionBatch(new SymbolTable());
+
+            PriceActionSerializer serializer = new PriceActionSerializer();
+            serializer.configure(Collections.singletonMap(PriceActionWireFormat.FORMAT_CONFIG,
+                    "binary".equals(decoder) ? PriceActionWireFormat.BINARY : PriceActionWireFormat.JSON), false);
+            headers = new RecordHeaders();
+            priceAction = BenchmarkData.ticks(1, 1, 42)[0];
+            value = serializer.serialize(KafkaConsumerConfig.PRICE_ACTION_TOPIC, headers, priceAction);
+        }
+    }
+
+    /** A service processing the decode state's record, with trace headers from the tracing setup. */
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class ServiceState {
+        private PriceActionService service;
+        private ConsumerRecord<String, byte[]> record;
+
+        @Setup
+        public void setUp(DecodeState decodeState, TracingState tracingState) {
+            RollingAverageCalculator calculator = new RollingAverageCalculator(tracingState.tracer,
+                    new IndicatorEngine(20, Indicators.parse(Indicators.ALL)), false);
+            service = new PriceActionService(new KafkaConsumerConfig(tracingState.tracer), calculator,
+                    decodeState.deserializer, tracingState.tracer);
+
+            RecordHeaders headers = new RecordHeaders(decodeState.headers.toArray());
+            Span producerSpan = tracingState.startOperation("benchmark.produce");
+            GlobalOpenTelemetry.getPropagators().getTextMapPropagator().inject(
+                    Context.current().with(producerSpan), headers, (carrier, key, text) -> carrier.add(key, text.getBytes()));
+            producerSpan.end();
+
+            byte[] value = decodeState.value;
+            record = new ConsumerRecord<>(KafkaConsumerConfig.PRICE_ACTION_TOPIC, 0, 0L, 0L, TimestampType.CREATE_TIME,
+                    -1, value.length, decodeState.priceAction.getUnderlying(), value, headers, Optional.empty());
+        }
+    }
+
+    @Benchmark
+    public PriceAction deserialize(DecodeState state) {
+        return state.deserializer.deserialize(KafkaConsumerConfig.PRICE_ACTION_TOPIC, state.headers, state.value);
+    }
+
+    @Benchmark
+    public long deserializeIntoBatch(DecodeState state) {
+        state.batch.clear();
+        int index = state.deserializer.deserializeInto(state.headers, state.value, state.batch);
+        return state.batch.epochNanos(index);
+    }
+
+    @Benchmark
+    public void processRecord(ServiceState state, TracingState tracingState) {
+        Span span = tracingState.startOperation("benchmark.consume");
+        try (Scope scope = span.makeCurrent()) {
+            state.service.processRecord(state.record);
+        } finally {
+            span.end();
+        }
+    }
+}
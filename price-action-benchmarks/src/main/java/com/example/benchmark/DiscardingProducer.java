@@ -0,0 +1,52 @@
+package com.example.benchmark;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Producer stand-in that serializes records the way {@code KafkaProducer} does,
+ * headers included, then acknowledges them immediately without keeping them.
+ */
+class DiscardingProducer<K, V> extends MockProducer<K, V> {
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private long bytesSent;
+
+    DiscardingProducer(Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        super(true, keySerializer, valueSerializer);
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    @Override
+    public synchronized Future<RecordMetadata> send(ProducerRecord<K, V> record) {
+        return send(record, null);
+    }
+
+    @Override
+    public synchronized Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+        byte[] key = keySerializer.serialize(record.topic(), record.headers(), record.key());
+        byte[] value = valueSerializer.serialize(record.topic(), record.headers(), record.value());
+        int keySize = key != null ? key.length : 0;
+        int valueSize = value != null ? value.length : 0;
+        bytesSent += keySize + valueSize;
+
+        RecordMetadata metadata = new RecordMetadata(
+                new TopicPartition(record.topic(), 0), 0, 0, 0L, keySize, valueSize);
+        if (callback != null) {
+            callback.onCompletion(metadata, null);
+        }
+        return CompletableFuture.completedFuture(metadata);
+    }
+
+    long bytesSent() {
+        return bytesSent;
+    }
+}
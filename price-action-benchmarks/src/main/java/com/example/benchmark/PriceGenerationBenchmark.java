@@ -0,0 +1,67 @@
+package com.example.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.domain.PriceAction;
+import com.example.infrastructure.MarketSimulator;
+import com.example.infrastructure.RandomPriceGenerator;
+import com.example.infrastructure.TickClock;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
+/**
+ * {@link RandomPriceGenerator#generateRandomPriceAction} with and without its
+ * compute span, and the bare {@link MarketSimulator} tick underneath it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class PriceGenerationBenchmark {
+    @Param({"false", "true"})
+    public boolean computeSpans;
+
+    @Param({"6", "10000"})
+    public int symbols;
+
+    private MarketSimulator simulator;
+    private RandomPriceGenerator generator;
+
+    @Setup
+    public void setUp(TracingState tracingState) {
+        simulator = new MarketSimulator(MarketSimulator.symbols(symbols), 42L,
+                TickClock.synthetic(LocalDateTime.of(2024, 1, 2, 9, 30), 1_000_000L),
+                MarketSimulator.DEFAULT_VOLATILITY);
+        generator = new RandomPriceGenerator(tracingState.tracer, computeSpans, simulator);
+    }
+
+    @Benchmark
+    public PriceAction simulateTick() {
+        return simulator.next();
+    }
+
+    @Benchmark
+    public PriceAction generateRandomPriceAction(TracingState tracingState) {
+        Span span = tracingState.startOperation("benchmark.generate");
+        try (Scope scope = span.makeCurrent()) {
+            return generator.generateRandomPriceAction();
+        } finally {
+            span.end();
+        }
+    }
+}
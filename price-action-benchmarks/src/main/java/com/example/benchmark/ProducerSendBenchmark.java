@@ -0,0 +1,69 @@
+package com.example.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.domain.PriceAction;
+import com.example.infrastructure.KafkaProducerClient;
+import com.example.infrastructure.PriceActionSerializer;
+import com.example.infrastructure.PriceActionWireFormat;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Producer-side encoding: the bare {@link PriceActionSerializer} and the full
+ * {@link KafkaProducerClient#sendPriceAction} path (span, context injection,
+ * serialization) against a producer that discards what it is given.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ProducerSendBenchmark {
+    @Param({PriceActionWireFormat.JSON, PriceActionWireFormat.BINARY})
+    public String format;
+
+    private PriceActionSerializer serializer;
+    private KafkaProducerClient client;
+    private PriceAction priceAction;
+
+    @Setup
+    public void setUp(TracingState tracingState) {
+        serializer = new PriceActionSerializer();
+        serializer.configure(Collections.singletonMap(PriceActionWireFormat.FORMAT_CONFIG, format), false);
+        client = new KafkaProducerClient(tracingState.tracer,
+                new DiscardingProducer<>(new StringSerializer(), serializer));
+        priceAction = BenchmarkData.ticks(1, 1, 42)[0];
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize("price-action", new RecordHeaders(), priceAction);
+    }
+
+    @Benchmark
+    public void sendPriceAction(TracingState tracingState) {
+        Span span = tracingState.startOperation("benchmark.send");
+        try (Scope scope = span.makeCurrent()) {
+            client.sendPriceAction(priceAction);
+        } finally {
+            span.end();
+        }
+    }
+}
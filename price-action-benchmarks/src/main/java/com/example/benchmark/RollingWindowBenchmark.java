@@ -0,0 +1,74 @@
+package com.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.domain.PriceAction;
+import com.example.presentation.RollingAverageCalculator;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.Indicators;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
+/**
+ * {@link RollingAverageCalculator#calculateRollingAverage} per tick, across
+ * window sizes, indicator sets and number of underlyings. {@code historyTicks}
+ * are fed in before measuring, so any dependence of the per-tick cost on how
+ * long the consumer has been running shows up directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class RollingWindowBenchmark {
+    private static final int TICKS = 1 << 12;
+
+    @Param({"5", "50", "500"})
+    public int windowSize;
+
+    @Param({"sma", Indicators.ALL})
+    public String indicators;
+
+    @Param({"1", "1000"})
+    public int underlyings;
+
+    @Param({"0", "1000000"})
+    public int historyTicks;
+
+    private RollingAverageCalculator calculator;
+    private PriceAction[] ticks;
+    private int next;
+
+    @Setup
+    public void setUp(TracingState tracingState) {
+        calculator = new RollingAverageCalculator(tracingState.tracer,
+                new IndicatorEngine(windowSize, Indicators.parse(indicators)), false);
+        ticks = BenchmarkData.ticks(TICKS, underlyings, 7);
+        for (int i = 0; i < historyTicks; i++) {
+            calculator.update(ticks[i & (TICKS - 1)]);
+        }
+    }
+
+    @Benchmark
+    public double calculateRollingAverage(TracingState tracingState) {
+        Span span = tracingState.startOperation("benchmark.calculate");
+        try (Scope scope = span.makeCurrent()) {
+            return calculator.calculateRollingAverage(ticks[next++ & (TICKS - 1)]);
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.benchmark;
+
+import java.util.Collection;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+/**
+ * Tracing setup shared by the benchmarks:
+ * <ul>
+ *   <li>{@code none}: no-op tracer and no enclosing span,</li>
+ *   <li>{@code noop}: no-op tracer with an enclosing span per operation,</li>
+ *   <li>{@code sdk}: always-on SDK tracer exporting through a batch processor
+ *       into a discarding exporter, with an enclosing span per operation.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class TracingState {
+    @Param({"none", "noop", "sdk"})
+    public String tracing;
+
+    public Tracer tracer;
+    private SdkTracerProvider tracerProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GlobalOpenTelemetry.resetForTest();
+        if ("sdk".equals(tracing)) {
+            tracerProvider = SdkTracerProvider.builder()
+                    .setSampler(Sampler.alwaysOn())
+                    .addSpanProcessor(BatchSpanProcessor.builder(new DiscardingSpanExporter()).build())
+                    .build();
+            OpenTelemetrySdk sdk = OpenTelemetrySdk.builder()
+                    .setTracerProvider(tracerProvider)
+                    .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                    .buildAndRegisterGlobal();
+            tracer = sdk.getTracer("price-action-benchmark");
+        } else {
+            tracer = OpenTelemetry.noop().getTracer("price-action-benchmark");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+        GlobalOpenTelemetry.resetForTest();
+    }
+
+    /** Starts the span enclosing one benchmarked operation; callers make it current and end it. */
+    public Span startOperation(String name) {
+        return "none".equals(tracing) ? Span.getInvalid() : tracer.spanBuilder(name).startSpan();
+    }
+
+    private static final class DiscardingSpanExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
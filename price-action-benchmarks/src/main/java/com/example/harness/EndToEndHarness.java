@@ -0,0 +1,240 @@
+package com.example.harness;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+
+import com.example.domain.PriceAction;
+import com.example.infrastructure.EnvConfig;
+import com.example.infrastructure.KafkaConsumerConfig;
+import com.example.infrastructure.KafkaProducerClient;
+import com.example.infrastructure.MarketSimulator;
+import com.example.infrastructure.PriceActionDeserializer;
+import com.example.infrastructure.PriceActionSerializer;
+import com.example.infrastructure.PriceActionWireFormat;
+import com.example.infrastructure.RandomPriceGenerator;
+import com.example.infrastructure.TickClock;
+import com.example.presentation.AverageSink;
+import com.example.presentation.RollingAverageCalculator;
+import com.example.presentation.indicator.IndicatorEngine;
+import com.example.presentation.indicator.Indicators;
+import com.example.service.PriceActionService;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanLimits;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+/**
+ * Pushes price actions from {@link KafkaProducerClient} through an
+ * {@link InMemoryBroker} into the consumer's {@link PriceActionService} and
+ * reports end-to-end throughput and latency, without a Kafka cluster.
+ *
+ * <p>Every span is sampled and exported to a {@link LatencyRecordingSpanExporter}.
+ * A message's latency runs from the start of its send span to the end of the
+ * consumer span that processed it. Messages are matched by trace id, so the run
+ * also checks that every consumed message still carried its producer's trace
+ * context. The harness exits with status 1 when any did not. Spans are timed by
+ * one monotonic clock, since the SDK's default anchors every trace on a fresh,
+ * possibly millisecond-precision, wall-clock reading.
+ *
+ * <p>Configured through the environment:
+ * <ul>
+ *   <li>{@code HARNESS_MESSAGES}: messages to send, default 100000,</li>
+ *   <li>{@code HARNESS_RATE}: messages per second, default 20000; 0 sends as fast as possible,</li>
+ *   <li>{@code HARNESS_PARTITIONS}: partitions of the in-memory topic, default 6,</li>
+ *   <li>{@code HARNESS_SYMBOLS}: simulated underlyings, default 6,</li>
+ *   <li>{@code CONSUMER_MAX_POLL_RECORDS}: records per poll, default 500,</li>
+ *   <li>{@code CONSUMER_MODE}: {@code record} or {@code batch}, default record,</li>
+ *   <li>{@code PRICE_ACTION_FORMAT}: wire format, default JSON,</li>
+ *   <li>{@code ROLLING_WINDOW_SIZE} and {@code INDICATORS}, as for the consumer.</li>
+ * </ul>
+ * Run with {@code java -cp benchmarks.jar com.example.harness.EndToEndHarness}.
+ */
+public final class EndToEndHarness {
+    private static final long CONSUMER_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private EndToEndHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int messages = EnvConfig.getInt("HARNESS_MESSAGES", 100_000);
+        int rate = EnvConfig.getInt("HARNESS_RATE", 20_000);
+        int partitions = EnvConfig.getInt("HARNESS_PARTITIONS", 6);
+        int symbols = EnvConfig.getInt("HARNESS_SYMBOLS", MarketSimulator.DEFAULT_SYMBOLS.size());
+        boolean batch = "batch".equals(EnvConfig.getString("CONSUMER_MODE", "record"));
+        String format = EnvConfig.getString("PRICE_ACTION_FORMAT", PriceActionWireFormat.JSON);
+
+        int maxPollRecords = EnvConfig.getInt("CONSUMER_MAX_POLL_RECORDS", 500);
+
+        LatencyRecordingSpanExporter exporter = new LatencyRecordingSpanExporter();
+        // Batch spans link every record of a poll, which can exceed the default limit of 128 links
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setClock(new MonotonicClock())
+                .setSampler(Sampler.alwaysOn())
+                .setSpanLimits(SpanLimits.builder()
+                        .setMaxNumberOfLinks(Math.max(SpanLimits.getDefault().getMaxNumberOfLinks(), maxPollRecords))
+                        .build())
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        Tracer tracer = tracerProvider.get("price-action-harness");
+
+        InMemoryBroker broker = new InMemoryBroker(KafkaConsumerConfig.PRICE_ACTION_TOPIC, partitions, maxPollRecords);
+        PriceActionSerializer serializer = new PriceActionSerializer();
+        serializer.configure(Collections.singletonMap(PriceActionWireFormat.FORMAT_CONFIG, format), false);
+        KafkaProducerClient producerClient = new KafkaProducerClient(tracer, broker.producer(serializer));
+        RandomPriceGenerator generator = new RandomPriceGenerator(tracer, false, new MarketSimulator(
+                symbols == MarketSimulator.DEFAULT_SYMBOLS.size() ? MarketSimulator.DEFAULT_SYMBOLS
+                        : MarketSimulator.symbols(symbols),
+                42L, TickClock.monotonic(), MarketSimulator.DEFAULT_VOLATILITY));
+
+        RollingAverageCalculator calculator = new RollingAverageCalculator(tracer, new IndicatorEngine(
+                EnvConfig.getInt("ROLLING_WINDOW_SIZE", 5),
+                Indicators.parse(EnvConfig.getString("INDICATORS", Indicators.ALL))), false);
+        PriceActionService service = new PriceActionService(
+                new KafkaConsumerConfig(tracer, maxPollRecords, 1, 500), calculator, new PriceActionDeserializer(), tracer);
+
+        ConsumerLoop consumerLoop = new ConsumerLoop(broker.consumer(), service, batch, messages);
+        Thread consumerThread = new Thread(consumerLoop, "harness-consumer");
+        consumerThread.start();
+
+        long start = System.nanoTime();
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        for (int i = 0; i < messages; i++) {
+            if (intervalNanos > 0) {
+                long due = start + i * intervalNanos;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            PriceAction priceAction = generator.generateRandomPriceAction();
+            producerClient.sendPriceAction(priceAction);
+        }
+        long sent = System.nanoTime();
+
+        consumerThread.join(TimeUnit.NANOSECONDS.toMillis(CONSUMER_TIMEOUT_NANOS));
+        consumerLoop.stop();
+        consumerThread.join();
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        tracerProvider.close();
+
+        boolean complete = report(messages, rate, partitions, batch, format,
+                sent - start, consumerLoop.finishedAt() - start, consumerLoop.consumed(), exporter);
+        System.exit(complete ? 0 : 1);
+    }
+
+    private static boolean report(int messages, int rate, int partitions, boolean batch, String format,
+                                  long sendNanos, long totalNanos, long consumed,
+                                  LatencyRecordingSpanExporter exporter) {
+        Map<String, Long> sendStarts = exporter.sendStarts();
+        Map<String, Long> processEnds = exporter.processEnds();
+        long[] latencies = new long[processEnds.size()];
+        int matched = 0;
+        for (Map.Entry<String, Long> processed : processEnds.entrySet()) {
+            Long sendStart = sendStarts.get(processed.getKey());
+            if (sendStart != null) {
+                latencies[matched++] = processed.getValue() - sendStart;
+            }
+        }
+        latencies = Arrays.copyOf(latencies, matched);
+        Arrays.sort(latencies);
+
+        System.out.printf("Messages: %d sent, %d consumed (%s mode, %s format, %d partitions, rate %s)%n",
+                messages, consumed, batch ? "batch" : "record", format, partitions,
+                rate > 0 ? rate + "/s" : "unthrottled");
+        System.out.printf("Throughput: %.0f msg/s produced, %.0f msg/s end to end%n",
+                messages / (sendNanos / 1e9), consumed / (totalNanos / 1e9));
+        if (matched > 0) {
+            System.out.printf("End-to-end latency (us): p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                    percentile(latencies, 0.50) / 1e3, percentile(latencies, 0.99) / 1e3,
+                    percentile(latencies, 0.999) / 1e3, latencies[matched - 1] / 1e3);
+        }
+        System.out.printf("Trace propagation: %d of %d consumed messages matched a producer trace%n",
+                matched, consumed);
+        return consumed == messages && matched == messages;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /** Epoch time read once and advanced by {@link System#nanoTime}, so all spans share one time base. */
+    private static final class MonotonicClock implements Clock {
+        private final long originEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        private final long originNanoTime = System.nanoTime();
+
+        @Override
+        public long now() {
+            return originEpochNanos + (System.nanoTime() - originNanoTime);
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    }
+
+    /** Polls the in-memory topic until every message has been consumed or the loop is stopped. */
+    private static final class ConsumerLoop implements Runnable {
+        private final MockConsumer<String, byte[]> consumer;
+        private final PriceActionService service;
+        private final boolean batch;
+        private final int expected;
+        private volatile boolean running = true;
+        private volatile long consumed;
+        private volatile long finishedAt;
+
+        private ConsumerLoop(MockConsumer<String, byte[]> consumer, PriceActionService service,
+                             boolean batch, int expected) {
+            this.consumer = consumer;
+            this.service = service;
+            this.batch = batch;
+            this.expected = expected;
+        }
+
+        @Override
+        public void run() {
+            long count = 0;
+            while (running && count < expected) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ZERO);
+                if (records.isEmpty()) {
+                    Thread.yield();
+                    continue;
+                }
+                if (batch) {
+                    service.processBatch(records, AverageSink.discarding());
+                } else {
+                    for (ConsumerRecord<String, byte[]> record : records) {
+                        service.processRecord(record);
+                    }
+                }
+                count += records.count();
+                consumed = count;
+            }
+            finishedAt = System.nanoTime();
+        }
+
+        private void stop() {
+            running = false;
+        }
+
+        private long consumed() {
+            return consumed;
+        }
+
+        private long finishedAt() {
+            return finishedAt;
+        }
+    }
+}
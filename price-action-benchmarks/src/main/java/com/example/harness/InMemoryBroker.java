@@ -0,0 +1,132 @@
+package com.example.harness;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * A single-topic stand-in for a Kafka cluster. Records sent through
+ * {@link #producer} are serialized the way {@code KafkaProducer} does, headers
+ * included, partitioned by key hash like the default partitioner, given
+ * offsets and queued for the {@link MockConsumer} returned by
+ * {@link #consumer()}, which is assigned every partition of the topic and,
+ * like a real consumer, returns at most {@code maxPollRecords} per poll.
+ */
+public class InMemoryBroker {
+    private final String topic;
+    private final int partitions;
+    private final int maxPollRecords;
+    private final long[] nextOffsets;
+    private final Queue<ConsumerRecord<String, byte[]>> pending = new ConcurrentLinkedQueue<>();
+    private final MockConsumer<String, byte[]> consumer = new BrokerConsumer();
+
+    public InMemoryBroker(String topic, int partitions, int maxPollRecords) {
+        this.topic = topic;
+        this.partitions = partitions;
+        this.maxPollRecords = maxPollRecords;
+        this.nextOffsets = new long[partitions];
+
+        List<TopicPartition> assignment = new ArrayList<>();
+        Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+        for (int i = 0; i < partitions; i++) {
+            TopicPartition partition = new TopicPartition(topic, i);
+            assignment.add(partition);
+            beginningOffsets.put(partition, 0L);
+        }
+        consumer.assign(assignment);
+        consumer.updateBeginningOffsets(beginningOffsets);
+    }
+
+    /** The consumer side of the topic, to be polled from a single thread. */
+    public MockConsumer<String, byte[]> consumer() {
+        return consumer;
+    }
+
+    public <V> MockProducer<String, V> producer(Serializer<V> valueSerializer) {
+        return new BrokerProducer<>(valueSerializer);
+    }
+
+    private synchronized ConsumerRecord<String, byte[]> append(String key, byte[] keyBytes, byte[] value,
+                                                               RecordHeaders headers) {
+        int partition = keyBytes == null ? 0 : Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+        long offset = nextOffsets[partition]++;
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(topic, partition, offset,
+                System.currentTimeMillis(), TimestampType.CREATE_TIME,
+                keyBytes != null ? keyBytes.length : -1, value != null ? value.length : -1,
+                key, value, headers, Optional.empty());
+        pending.add(record);
+        return record;
+    }
+
+    private final class BrokerConsumer extends MockConsumer<String, byte[]> {
+        private BrokerConsumer() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized ConsumerRecords<String, byte[]> poll(Duration timeout) {
+            ConsumerRecord<String, byte[]> record;
+            for (int i = 0; i < maxPollRecords && (record = pending.poll()) != null; i++) {
+                addRecord(record);
+            }
+            return super.poll(timeout);
+        }
+    }
+
+    private final class BrokerProducer<V> extends MockProducer<String, V> {
+        private final Serializer<String> keySerializer = new StringSerializer();
+        private final Serializer<V> valueSerializer;
+
+        private BrokerProducer(Serializer<V> valueSerializer) {
+            // send is overridden entirely, but the parent still wants the serializers
+            super(true, new StringSerializer(), valueSerializer);
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, V> record) {
+            return send(record, null);
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<String, V> record, Callback callback) {
+            if (!topic.equals(record.topic())) {
+                throw new IllegalArgumentException("Unknown topic " + record.topic());
+            }
+            byte[] key = keySerializer.serialize(record.topic(), record.headers(), record.key());
+            byte[] value = valueSerializer.serialize(record.topic(), record.headers(), record.value());
+            ConsumerRecord<String, byte[]> appended = append(record.key(), key, value,
+                    new RecordHeaders(record.headers().toArray()));
+
+            RecordMetadata metadata = new RecordMetadata(
+                    new TopicPartition(topic, appended.partition()), appended.offset(), 0, appended.timestamp(),
+                    appended.serializedKeySize(), appended.serializedValueSize());
+            if (callback != null) {
+                callback.onCompletion(metadata, null);
+            }
+            return CompletableFuture.completedFuture(metadata);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.harness;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Keeps only what the harness needs from the exported spans: when each
+ * message's send span started and when the consumer span that handled it
+ * ended, both keyed by trace id. A record span belongs to the producer's trace
+ * through its remote parent; a batch span reaches it through its links. Spans
+ * may be exported in either order, so matching is left to the caller.
+ */
+class LatencyRecordingSpanExporter implements SpanExporter {
+    static final String SEND_SPAN = "infrastructure.send-price-action";
+    static final String RECORD_SPAN = "process-price-action-record";
+    static final String BATCH_SPAN = "process-price-action-batch";
+
+    private final Map<String, Long> sendStarts = new ConcurrentHashMap<>();
+    private final Map<String, Long> processEnds = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        for (SpanData span : spans) {
+            switch (span.getName()) {
+                case SEND_SPAN:
+                    sendStarts.put(span.getTraceId(), span.getStartEpochNanos());
+                    break;
+                case RECORD_SPAN:
+                    processEnds.put(span.getTraceId(), span.getEndEpochNanos());
+                    break;
+                case BATCH_SPAN:
+                    for (LinkData link : span.getLinks()) {
+                        SpanContext linked = link.getSpanContext();
+                        processEnds.put(linked.getTraceId(), span.getEndEpochNanos());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /** Send-span start times in epoch nanos, by trace id. */
+    Map<String, Long> sendStarts() {
+        return sendStarts;
+    }
+
+    /** End times of the consumer spans in epoch nanos, by the trace id of the message they processed. */
+    Map<String, Long> processEnds() {
+        return processEnds;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
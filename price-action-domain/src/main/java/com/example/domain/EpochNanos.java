@@ -0,0 +1,29 @@
+package com.example.domain;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions between {@link LocalDateTime} and UTC epoch nanoseconds, the
+ * timestamp representation used on the wire and in {@link PriceActionBatch}.
+ */
+public final class EpochNanos {
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+    public static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private EpochNanos() {
+    }
+
+    public static long of(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + date.getNano();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    public static long toEpochMillis(long epochNanos) {
+        return Math.floorDiv(epochNanos, NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.domain;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * A reusable, column-oriented batch of price actions. Each field lives in its own
+ * primitive array and underlyings are stored as {@link SymbolTable} ids, so
+ * filling and scanning a batch allocates nothing once the arrays have grown to
+ * the working size. Rows are read through a {@link View}, a flyweight that can
+ * be moved across rows and passed wherever a {@link PriceAction} is expected.
+ * Batches are not thread-safe.
+ */
+public class PriceActionBatch {
+    private static final int DEFAULT_CAPACITY = 512;
+
+    private final SymbolTable symbols;
+    private double[] opens;
+    private double[] closes;
+    private double[] highs;
+    private double[] lows;
+    private int[] volumes;
+    private long[] epochNanos;
+    private int[] symbolIds;
+    private int size;
+
+    public PriceActionBatch(SymbolTable symbols) {
+        this(symbols, DEFAULT_CAPACITY);
+    }
+
+    public PriceActionBatch(SymbolTable symbols, int capacity) {
+        this.symbols = symbols;
+        this.opens = new double[capacity];
+        this.closes = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.volumes = new int[capacity];
+        this.epochNanos = new long[capacity];
+        this.symbolIds = new int[capacity];
+    }
+
+    public int add(double open, double close, double high, double low, int volume, long epochNanos, int symbolId) {
+        if (size == opens.length) {
+            grow();
+        }
+        int index = size++;
+        opens[index] = open;
+        closes[index] = close;
+        highs[index] = high;
+        lows[index] = low;
+        volumes[index] = volume;
+        this.epochNanos[index] = epochNanos;
+        symbolIds[index] = symbolId;
+        return index;
+    }
+
+    public int add(double open, double close, double high, double low, int volume, long epochNanos, String underlying) {
+        return add(open, close, high, low, volume, epochNanos, symbols.idOf(underlying));
+    }
+
+    public int add(PriceAction priceAction) {
+        if (priceAction instanceof View) {
+            View view = (View) priceAction;
+            return add(view.getOpen(), view.getClose(), view.getHigh(), view.getLow(), view.getVolume(),
+                    view.getEpochNanos(), view.getUnderlying());
+        }
+        return add(priceAction.getOpen(), priceAction.getClose(), priceAction.getHigh(), priceAction.getLow(),
+                priceAction.getVolume(), EpochNanos.of(priceAction.getDate()), priceAction.getUnderlying());
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public double open(int index) {
+        return opens[checkIndex(index)];
+    }
+
+    public double close(int index) {
+        return closes[checkIndex(index)];
+    }
+
+    public double high(int index) {
+        return highs[checkIndex(index)];
+    }
+
+    public double low(int index) {
+        return lows[checkIndex(index)];
+    }
+
+    public int volume(int index) {
+        return volumes[checkIndex(index)];
+    }
+
+    public long epochNanos(int index) {
+        return epochNanos[checkIndex(index)];
+    }
+
+    public int symbolId(int index) {
+        return symbolIds[checkIndex(index)];
+    }
+
+    public String underlying(int index) {
+        return symbols.symbol(symbolIds[checkIndex(index)]);
+    }
+
+    /** Returns a new flyweight over this batch, positioned before the first row. */
+    public View view() {
+        return new View(this);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for batch of " + size);
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, opens.length * 2);
+        opens = Arrays.copyOf(opens, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+        epochNanos = Arrays.copyOf(epochNanos, capacity);
+        symbolIds = Arrays.copyOf(symbolIds, capacity);
+    }
+
+    /**
+     * A movable {@link PriceAction} over one row of a batch. The view reflects the
+     * row it was last moved to, so callers that keep a price action beyond the
+     * current row must copy it, for example with {@link #toPriceAction()}.
+     * {@link #getDate()} allocates; hot paths should use {@link #getEpochNanos()}.
+     */
+    public static final class View implements PriceAction {
+        private final PriceActionBatch batch;
+        private int index = -1;
+
+        private View(PriceActionBatch batch) {
+            this.batch = batch;
+        }
+
+        public View moveTo(int index) {
+            batch.checkIndex(index);
+            this.index = index;
+            return this;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        @Override public double getOpen() { return batch.opens[index]; }
+        @Override public double getClose() { return batch.closes[index]; }
+        @Override public double getHigh() { return batch.highs[index]; }
+        @Override public double getLow() { return batch.lows[index]; }
+        @Override public int getVolume() { return batch.volumes[index]; }
+        @Override public LocalDateTime getDate() { return EpochNanos.toLocalDateTime(batch.epochNanos[index]); }
+        @Override public String getUnderlying() { return batch.symbols.symbol(batch.symbolIds[index]); }
+
+        public long getEpochNanos() {
+            return batch.epochNanos[index];
+        }
+
+        public int getSymbolId() {
+            return batch.symbolIds[index];
+        }
+
+        public PriceAction toPriceAction() {
+            return new PriceActionImpl(getOpen(), getClose(), getHigh(), getLow(), getVolume(), getDate(),
+                    getUnderlying());
+        }
+    }
+}
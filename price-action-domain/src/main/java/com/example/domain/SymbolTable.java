@@ -0,0 +1,44 @@
+package com.example.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns dense int ids to underlyings so columnar batches can store a symbol
+ * as an int. Ids are never reused; lookups by id are a plain array read.
+ */
+public class SymbolTable {
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] symbols = new String[64];
+    private int size;
+
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = symbols;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        int id = size++;
+        current[id] = symbol;
+        symbols = current;
+        ids.put(symbol, id);
+        return id;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.infrastructure;
+
+/**
+ * Reads typed settings from environment variables, falling back to a default
+ * when a variable is unset or blank.
+ */
+public final class EnvConfig {
+    private EnvConfig() {
+    }
+
+    public static String getString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = getString(name, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = getString(name, null);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    public static double getDouble(String name, double defaultValue) {
+        String value = getString(name, null);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue) {
+        String value = getString(name, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.infrastructure;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.example.domain.EpochNanos;
+
+/**
+ * Parses ISO-8601 local date-times of the fixed layout
+ * {@code yyyy-MM-ddTHH:mm[:ss[.fffffffff]]} directly from a character buffer.
+ * Anything outside that layout is handed to {@link LocalDateTime#parse}.
+ * {@link #parseEpochNanos} skips the {@link LocalDateTime} entirely and returns
+ * UTC epoch nanoseconds, for callers that store timestamps as primitives.
+ */
+public final class IsoLocalDateTimeParser {
+    private static final int MINUTES_LENGTH = 16;
+    private static final int SECONDS_LENGTH = 19;
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private IsoLocalDateTimeParser() {
+    }
+
+    public static LocalDateTime parse(char[] chars, int offset, int length) {
+        long epochSecond = epochSecond(chars, offset, length);
+        int nano = epochSecond != INVALID ? nano(chars, offset, length) : -1;
+        if (nano < 0) {
+            return fallback(chars, offset, length);
+        }
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    public static long parseEpochNanos(char[] chars, int offset, int length) {
+        long epochSecond = epochSecond(chars, offset, length);
+        int nano = epochSecond != INVALID ? nano(chars, offset, length) : -1;
+        if (nano < 0) {
+            return EpochNanos.of(fallback(chars, offset, length));
+        }
+        return epochSecond * EpochNanos.NANOS_PER_SECOND + nano;
+    }
+
+    /**
+     * The UTC epoch second of a text matching the layout, with its fraction left
+     * to {@link #nano}, or {@link #INVALID} if it does not match or is not a valid
+     * date-time.
+     */
+    private static long epochSecond(char[] chars, int offset, int length) {
+        if (!matchesLayout(chars, offset, length)) {
+            return INVALID;
+        }
+        int year = digits(chars, offset, 4);
+        int month = digits(chars, offset + 5, 2);
+        int day = digits(chars, offset + 8, 2);
+        int hour = digits(chars, offset + 11, 2);
+        int minute = digits(chars, offset + 14, 2);
+        int second = second(chars, offset, length);
+        if ((year | month | day | hour | minute | second) < 0 || !isValid(year, month, day, hour, minute, second)) {
+            return INVALID;
+        }
+        return daysFromCivil(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * Checks the separators and length of the fixed layout. The digits between
+     * them are checked as each field is read.
+     */
+    private static boolean matchesLayout(char[] chars, int offset, int length) {
+        if (length < MINUTES_LENGTH
+                || chars[offset + 4] != '-' || chars[offset + 7] != '-' || chars[offset + 10] != 'T'
+                || chars[offset + 13] != ':') {
+            return false;
+        }
+        if (length == MINUTES_LENGTH) {
+            return true;
+        }
+        if (length < SECONDS_LENGTH || chars[offset + 16] != ':') {
+            return false;
+        }
+        int fractionDigits = length - SECONDS_LENGTH - 1;
+        return length == SECONDS_LENGTH
+                || (chars[offset + SECONDS_LENGTH] == '.' && fractionDigits >= 1 && fractionDigits <= 9);
+    }
+
+    /** The seconds of a text matching the layout, 0 if it has none or -1 if they are not digits. */
+    private static int second(char[] chars, int offset, int length) {
+        return length > MINUTES_LENGTH ? digits(chars, offset + 17, 2) : 0;
+    }
+
+    /** The fraction of a text matching the layout in nanoseconds, 0 if it has none or -1 if it is not digits. */
+    private static int nano(char[] chars, int offset, int length) {
+        if (length <= SECONDS_LENGTH) {
+            return 0;
+        }
+        int fractionDigits = length - SECONDS_LENGTH - 1;
+        int nano = digits(chars, offset + SECONDS_LENGTH + 1, fractionDigits);
+        if (nano < 0) {
+            return -1;
+        }
+        for (int i = fractionDigits; i < 9; i++) {
+            nano *= 10;
+        }
+        return nano;
+    }
+
+    /** Range checks that {@link LocalDateTime#parse} would otherwise perform. */
+    private static boolean isValid(int year, int month, int day, int hour, int minute, int second) {
+        return month >= 1 && month <= 12
+                && day >= 1 && day <= lengthOfMonth(year, month)
+                && hour < 24 && minute < 60 && second < 60;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /** Days since 1970-01-01 of a proleptic Gregorian date (Howard Hinnant's days_from_civil). */
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /** Returns the decimal value of {@code count} digits, or -1 if any of them is not a digit. */
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = chars[offset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static LocalDateTime fallback(char[] chars, int offset, int length) {
+        return LocalDateTime.parse(new String(chars, offset, length));
+    }
+}
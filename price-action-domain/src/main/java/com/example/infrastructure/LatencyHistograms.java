@@ -0,0 +1,31 @@
+package com.example.infrastructure;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+/**
+ * Millisecond latency histograms with the bucket boundaries shared by the
+ * producer and consumer metrics, so their latencies can be compared bucket by
+ * bucket.
+ */
+public final class LatencyHistograms {
+    /** From 10 microseconds to 10 seconds, in 1-2.5-5 steps per decade. */
+    public static final List<Double> BUCKETS_MS = Collections.unmodifiableList(Arrays.asList(
+            0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0, 25.0, 50.0, 100.0, 250.0, 500.0, 1000.0,
+            2500.0, 5000.0, 10000.0));
+
+    private LatencyHistograms() {
+    }
+
+    public static DoubleHistogram create(Meter meter, String name, String description) {
+        return meter.histogramBuilder(name)
+                .setDescription(description)
+                .setUnit("ms")
+                .setExplicitBucketBoundariesAdvice(BUCKETS_MS)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.infrastructure;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns a per-message log statement into a periodic summary. Every event is
+ * counted, and at most once per interval {@link #sample} hands the caller the
+ * number of events since the last summary, so only that one event pays for
+ * formatting a log line. Safe to share between threads.
+ */
+public final class LogSampler {
+    private final long intervalNanos;
+    private final LongAdder events = new LongAdder();
+    private final AtomicLong nextSummary;
+
+    public LogSampler(long intervalMs) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.nextSummary = new AtomicLong(System.nanoTime() + intervalNanos);
+    }
+
+    /** A sampler with the interval from {@code LOG_SUMMARY_INTERVAL_MS}, one second by default. */
+    public static LogSampler create() {
+        return new LogSampler(EnvConfig.getLong("LOG_SUMMARY_INTERVAL_MS", 1000));
+    }
+
+    /**
+     * Counts {@code count} events. Returns the number of events since the last
+     * summary if one is due now, or 0 if the caller should not log.
+     */
+    public long sample(long count) {
+        events.add(count);
+        long now = System.nanoTime();
+        long due = nextSummary.get();
+        if (now - due >= 0 && nextSummary.compareAndSet(due, now + intervalNanos)) {
+            return events.sumThenReset();
+        }
+        return 0;
+    }
+
+    public long sample() {
+        return sample(1);
+    }
+}
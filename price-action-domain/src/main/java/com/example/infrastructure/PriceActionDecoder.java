@@ -0,0 +1,25 @@
+package com.example.infrastructure;
+
+import java.io.IOException;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+
+/**
+ * Turns the JSON value of a price-action record into a {@link PriceAction}.
+ */
+public interface PriceActionDecoder {
+    PriceAction decode(byte[] json) throws IOException;
+
+    /**
+     * Decodes the record straight into the next row of {@code batch} and returns
+     * that row's index. The default goes through {@link #decode}; decoders that
+     * can fill the columns without an intermediate object should override it.
+     */
+    default int decodeInto(byte[] json, PriceActionBatch batch) throws IOException {
+        PriceAction priceAction = decode(json);
+        return batch.add(priceAction.getOpen(), priceAction.getClose(), priceAction.getHigh(), priceAction.getLow(),
+                priceAction.getVolume(), EpochNanos.of(priceAction.getDate()), priceAction.getUnderlying());
+    }
+}
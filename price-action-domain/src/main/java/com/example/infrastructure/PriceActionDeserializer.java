@@ -0,0 +1,143 @@
+package com.example.infrastructure;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+import com.example.domain.PriceActionImpl;
+
+/**
+ * Deserializes price actions in either wire format, picking the format from the
+ * record's {@link PriceActionWireFormat#FORMAT_HEADER} header. Records without
+ * the header are treated as JSON; records naming any other format are rejected.
+ * {@link #deserializeInto} decodes into a
+ * {@link PriceActionBatch} instead of allocating a price action per record.
+ */
+public class PriceActionDeserializer implements Deserializer<PriceAction> {
+    private static final byte[] JSON_HEADER_VALUE = PriceActionWireFormat.JSON.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BINARY_HEADER_VALUE = PriceActionWireFormat.BINARY.getBytes(StandardCharsets.US_ASCII);
+
+    private final PriceActionDecoder jsonDecoder;
+    private final SymbolCache symbols;
+
+    public PriceActionDeserializer() {
+        this(new StreamingPriceActionDecoder(), new SymbolCache());
+    }
+
+    public PriceActionDeserializer(PriceActionDecoder jsonDecoder, SymbolCache symbols) {
+        this.jsonDecoder = jsonDecoder;
+        this.symbols = symbols;
+    }
+
+    @Override
+    public PriceAction deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (isBinary(headers)) {
+            return decodeBinary(data);
+        }
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public PriceAction deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return jsonDecoder.decode(data);
+        } catch (IOException e) {
+            throw new SerializationException("Error deserializing price action from JSON", e);
+        }
+    }
+
+    /** Decodes {@code data} into the next row of {@code batch} and returns that row's index. */
+    public int deserializeInto(Headers headers, byte[] data, PriceActionBatch batch) {
+        if (data == null) {
+            throw new SerializationException("Cannot decode a null price action into a batch");
+        }
+        if (isBinary(headers)) {
+            ByteBuffer buffer = binaryBody(data);
+            double open = buffer.getDouble();
+            double close = buffer.getDouble();
+            double high = buffer.getDouble();
+            double low = buffer.getDouble();
+            int volume = buffer.getInt();
+            long epochNanos = buffer.getLong();
+            int symbolLength = checkSymbolLength(buffer);
+            return batch.add(open, close, high, low, volume, epochNanos,
+                    decodeUnderlying(data, buffer.position(), symbolLength));
+        }
+        try {
+            return jsonDecoder.decodeInto(data, batch);
+        } catch (IOException e) {
+            throw new SerializationException("Error deserializing price action from JSON", e);
+        }
+    }
+
+    /** Whether the record is binary rather than JSON, by its format header. */
+    private static boolean isBinary(Headers headers) {
+        Header format = headers != null ? headers.lastHeader(PriceActionWireFormat.FORMAT_HEADER) : null;
+        if (format == null || Arrays.equals(JSON_HEADER_VALUE, format.value())) {
+            return false;
+        }
+        if (Arrays.equals(BINARY_HEADER_VALUE, format.value())) {
+            return true;
+        }
+        throw new SerializationException("Unknown price action format: "
+                + (format.value() == null ? null : new String(format.value(), StandardCharsets.US_ASCII)));
+    }
+
+    private PriceAction decodeBinary(byte[] data) {
+        ByteBuffer buffer = binaryBody(data);
+        double open = buffer.getDouble();
+        double close = buffer.getDouble();
+        double high = buffer.getDouble();
+        double low = buffer.getDouble();
+        int volume = buffer.getInt();
+        long epochNanos = buffer.getLong();
+        int symbolLength = checkSymbolLength(buffer);
+        String underlying = decodeUnderlying(data, buffer.position(), symbolLength);
+        return new PriceActionImpl(open, close, high, low, volume, EpochNanos.toLocalDateTime(epochNanos), underlying);
+    }
+
+    /** Validates the length and version of a binary record and returns a buffer positioned at its first field. */
+    private static ByteBuffer binaryBody(byte[] data) {
+        if (data.length < PriceActionWireFormat.BINARY_FIXED_SIZE) {
+            throw new SerializationException("Binary price action is truncated: " + data.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = buffer.get();
+        if (version != PriceActionWireFormat.BINARY_VERSION) {
+            throw new SerializationException("Unsupported binary price action version: " + version);
+        }
+        return buffer;
+    }
+
+    private static int checkSymbolLength(ByteBuffer buffer) {
+        int symbolLength = buffer.get() & 0xFF;
+        if (buffer.remaining() != symbolLength) {
+            throw new SerializationException("Binary price action has a malformed underlying");
+        }
+        return symbolLength;
+    }
+
+    private String decodeUnderlying(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] < 0) {
+                return new String(data, offset, length, StandardCharsets.UTF_8);
+            }
+        }
+        return symbols.intern(data, offset, length);
+    }
+}
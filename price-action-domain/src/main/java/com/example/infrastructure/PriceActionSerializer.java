@@ -0,0 +1,115 @@
+package com.example.infrastructure;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Serializes price actions as JSON or in the fixed binary layout described by
+ * {@link PriceActionWireFormat}, and tags each record with the format used.
+ */
+public class PriceActionSerializer implements Serializer<PriceAction> {
+    private static final byte[] JSON_HEADER_VALUE = PriceActionWireFormat.JSON.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BINARY_HEADER_VALUE = PriceActionWireFormat.BINARY.getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private boolean binary;
+
+    public PriceActionSerializer() {
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(PriceActionWireFormat.FORMAT_CONFIG);
+        if (format == null || PriceActionWireFormat.JSON.equals(format)) {
+            binary = false;
+        } else if (PriceActionWireFormat.BINARY.equals(format) || "binary".equals(format)) {
+            binary = true;
+        } else {
+            throw new IllegalArgumentException("Unknown price action format: " + format);
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, PriceAction priceAction) {
+        if (priceAction == null) {
+            return null;
+        }
+        headers.remove(PriceActionWireFormat.FORMAT_HEADER);
+        headers.add(PriceActionWireFormat.FORMAT_HEADER, binary ? BINARY_HEADER_VALUE : JSON_HEADER_VALUE);
+        return serialize(topic, priceAction);
+    }
+
+    @Override
+    public byte[] serialize(String topic, PriceAction priceAction) {
+        if (priceAction == null) {
+            return null;
+        }
+        return binary ? encodeBinary(priceAction) : encodeJson(priceAction);
+    }
+
+    private byte[] encodeJson(PriceAction priceAction) {
+        try {
+            return objectMapper.writeValueAsBytes(priceAction);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Error serializing price action to JSON", e);
+        }
+    }
+
+    static byte[] encodeBinary(PriceAction priceAction) {
+        String underlying = priceAction.getUnderlying();
+        byte[] symbol = isAscii(underlying) ? null : underlying.getBytes(StandardCharsets.UTF_8);
+        int symbolLength = symbol != null ? symbol.length : underlying.length();
+        if (symbolLength > PriceActionWireFormat.MAX_UNDERLYING_BYTES) {
+            throw new SerializationException("Underlying is too long for the binary format: " + underlying);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(PriceActionWireFormat.BINARY_FIXED_SIZE + symbolLength);
+        buffer.put(PriceActionWireFormat.BINARY_VERSION)
+                .putDouble(priceAction.getOpen())
+                .putDouble(priceAction.getClose())
+                .putDouble(priceAction.getHigh())
+                .putDouble(priceAction.getLow())
+                .putInt(priceAction.getVolume())
+                .putLong(epochNanos(priceAction))
+                .put((byte) symbolLength);
+        if (symbol != null) {
+            buffer.put(symbol);
+        } else {
+            for (int i = 0; i < symbolLength; i++) {
+                buffer.put((byte) underlying.charAt(i));
+            }
+        }
+        return buffer.array();
+    }
+
+    private static long epochNanos(PriceAction priceAction) {
+        if (priceAction instanceof PriceActionBatch.View) {
+            return ((PriceActionBatch.View) priceAction).getEpochNanos();
+        }
+        return EpochNanos.of(priceAction.getDate());
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.infrastructure;
+
+/**
+ * Wire-level constants shared by the price-action serializer and deserializer.
+ *
+ * <p>Every record carries a {@value #FORMAT_HEADER} header naming its encoding.
+ * Records without the header are JSON, which keeps older producers readable.
+ *
+ * <p>The binary layout is fixed and big-endian:
+ * <pre>
+ *   byte    version (1)
+ *   double  open, close, high, low
+ *   int     volume
+ *   long    date as nanoseconds since the epoch, UTC
+ *   byte    underlying length n, followed by n UTF-8 bytes
+ * </pre>
+ */
+public final class PriceActionWireFormat {
+    public static final String FORMAT_HEADER = "price-action-format";
+    public static final String JSON = "json";
+    public static final String BINARY = "binary-v1";
+
+    public static final byte BINARY_VERSION = 1;
+    public static final int BINARY_FIXED_SIZE = 1 + 4 * Double.BYTES + Integer.BYTES + Long.BYTES + 1;
+    public static final int MAX_UNDERLYING_BYTES = 255;
+
+    /** Serializer config key selecting {@link #JSON} or {@link #BINARY}. */
+    public static final String FORMAT_CONFIG = "price-action.format";
+
+    private PriceActionWireFormat() {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.infrastructure;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Reads and writes the {@value #SEQUENCE_HEADER} header, which numbers the
+ * price actions of one underlying from one producer. Producers that spread an
+ * underlying over several partitions stamp it so consumers can put the ticks
+ * back in order.
+ *
+ * <p>The value is fixed and big-endian:
+ * <pre>
+ *   long    source, a random id of the producing client
+ *   long    sequence, starting at 0 for every underlying of that source
+ * </pre>
+ */
+public final class SequenceHeaderCodec {
+    public static final String SEQUENCE_HEADER = "price-action-seq";
+    public static final int LENGTH = 2 * Long.BYTES;
+
+    private SequenceHeaderCodec() {
+    }
+
+    public static void inject(long source, long sequence, Headers headers) {
+        byte[] value = new byte[LENGTH];
+        writeLong(source, value, 0);
+        writeLong(sequence, value, Long.BYTES);
+        headers.add(SEQUENCE_HEADER, value);
+    }
+
+    /** The header value, or null if the record carries no well-formed sequence header. */
+    public static byte[] find(Headers headers) {
+        Header header = headers.lastHeader(SEQUENCE_HEADER);
+        if (header == null || header.value() == null || header.value().length != LENGTH) {
+            return null;
+        }
+        return header.value();
+    }
+
+    public static long source(byte[] value) {
+        return readLong(value, 0);
+    }
+
+    public static long sequence(byte[] value) {
+        return readLong(value, Long.BYTES);
+    }
+
+    private static void writeLong(long v, byte[] bytes, int offset) {
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[offset + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long v = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            v = (v << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.infrastructure;
+
+import java.io.IOException;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+import com.example.domain.PriceActionImpl;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Decodes price actions straight off the Jackson token stream. Numbers are read
+ * into primitives, the date is parsed from the parser's character buffer and
+ * underlyings are resolved through a {@link SymbolCache}, so no tree or
+ * intermediate Strings are built per message. {@link #decodeInto} writes the
+ * fields into a {@link PriceActionBatch} without creating a price action at all.
+ * The decoder is shared by consumer and replay threads, so each thread parses
+ * into its own reused set of fields.
+ */
+public class StreamingPriceActionDecoder implements PriceActionDecoder {
+    private static final int OPEN = 1;
+    private static final int CLOSE = 1 << 1;
+    private static final int HIGH = 1 << 2;
+    private static final int LOW = 1 << 3;
+    private static final int VOLUME = 1 << 4;
+    private static final int DATE = 1 << 5;
+    private static final int UNDERLYING = 1 << 6;
+    private static final int ALL_FIELDS = (1 << 7) - 1;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final SymbolCache symbols;
+    private final ThreadLocal<Fields> threadFields = ThreadLocal.withInitial(Fields::new);
+
+    public StreamingPriceActionDecoder() {
+        this(new SymbolCache());
+    }
+
+    public StreamingPriceActionDecoder(SymbolCache symbols) {
+        this.symbols = symbols;
+    }
+
+    @Override
+    public PriceAction decode(byte[] json) throws IOException {
+        Fields fields = parse(json);
+        return new PriceActionImpl(fields.open, fields.close, fields.high, fields.low, fields.volume,
+                EpochNanos.toLocalDateTime(fields.epochNanos), fields.underlying);
+    }
+
+    @Override
+    public int decodeInto(byte[] json, PriceActionBatch batch) throws IOException {
+        Fields fields = parse(json);
+        return batch.add(fields.open, fields.close, fields.high, fields.low, fields.volume,
+                fields.epochNanos, fields.underlying);
+    }
+
+    private Fields parse(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a price action object");
+            }
+
+            Fields fields = threadFields.get();
+            int seen = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "open":
+                        fields.open = parser.getDoubleValue();
+                        seen |= OPEN;
+                        break;
+                    case "close":
+                        fields.close = parser.getDoubleValue();
+                        seen |= CLOSE;
+                        break;
+                    case "high":
+                        fields.high = parser.getDoubleValue();
+                        seen |= HIGH;
+                        break;
+                    case "low":
+                        fields.low = parser.getDoubleValue();
+                        seen |= LOW;
+                        break;
+                    case "volume":
+                        fields.volume = parser.getIntValue();
+                        seen |= VOLUME;
+                        break;
+                    case "date":
+                        fields.epochNanos = IsoLocalDateTimeParser.parseEpochNanos(
+                                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        seen |= DATE;
+                        break;
+                    case "underlying":
+                        fields.underlying = symbols.intern(
+                                parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        seen |= UNDERLYING;
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+
+            if (seen != ALL_FIELDS) {
+                throw new JsonParseException(parser, "Price action is missing required fields");
+            }
+            return fields;
+        }
+    }
+
+    /** The decoded values of the last message; every field is overwritten, or the message is rejected. */
+    private static final class Fields {
+        double open;
+        double close;
+        double high;
+        double low;
+        int volume;
+        long epochNanos;
+        String underlying;
+    }
+}
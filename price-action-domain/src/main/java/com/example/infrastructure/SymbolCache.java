@@ -0,0 +1,86 @@
+package com.example.infrastructure;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Direct-mapped cache of underlying symbols keyed by their characters, so a
+ * decoder can hand out the same String instance for every message of a symbol
+ * without allocating one per message. A slot holds the most recent symbol that
+ * hashed to it; a collision simply replaces it. Concurrent use is safe because
+ * slots only ever hold fully constructed, immutable Strings.
+ */
+public class SymbolCache {
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    private final String[] slots;
+    private final int mask;
+
+    public SymbolCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SymbolCache(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two: " + capacity);
+        }
+        this.slots = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public String intern(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        String cached = slots[index];
+        if (cached != null && matches(cached, chars, offset, length)) {
+            return cached;
+        }
+        String symbol = new String(chars, offset, length);
+        slots[index] = symbol;
+        return symbol;
+    }
+
+    /** Same as {@link #intern(char[], int, int)} for symbols encoded as ASCII bytes. */
+    public String intern(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (bytes[offset + i] & 0xFF);
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        String cached = slots[index];
+        if (cached != null && matches(cached, bytes, offset, length)) {
+            return cached;
+        }
+        String symbol = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        slots[index] = symbol;
+        return symbol;
+    }
+
+    private static boolean matches(String symbol, byte[] bytes, int offset, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != (bytes[offset + i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String symbol, char[] chars, int offset, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.infrastructure;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.TraceStateBuilder;
+
+/**
+ * Reads and writes W3C {@code traceparent}/{@code tracestate} Kafka headers
+ * straight from and into the header bytes, without going through a
+ * {@code TextMapPropagator} and its per-record key lists and header Strings.
+ * Only the trace and span ids, which {@link SpanContext} keeps as Strings, are
+ * materialised on extract.
+ */
+public final class TraceHeaderCodec {
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACESTATE = "tracestate";
+
+    private static final int TRACEPARENT_LENGTH = 55;
+    private static final int TRACE_ID_OFFSET = 3;
+    private static final int SPAN_ID_OFFSET = 36;
+    private static final int FLAGS_OFFSET = 53;
+    private static final int MAX_TRACESTATE_ENTRIES = 32;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private TraceHeaderCodec() {
+    }
+
+    /** Adds {@code traceparent}, and {@code tracestate} if it is not empty, for a valid span context. */
+    public static void inject(SpanContext spanContext, Headers headers) {
+        if (!spanContext.isValid()) {
+            return;
+        }
+        byte[] traceparent = new byte[TRACEPARENT_LENGTH];
+        traceparent[0] = '0';
+        traceparent[1] = '0';
+        traceparent[2] = '-';
+        writeAscii(spanContext.getTraceId(), traceparent, TRACE_ID_OFFSET);
+        traceparent[SPAN_ID_OFFSET - 1] = '-';
+        writeAscii(spanContext.getSpanId(), traceparent, SPAN_ID_OFFSET);
+        traceparent[FLAGS_OFFSET - 1] = '-';
+        byte flags = spanContext.getTraceFlags().asByte();
+        traceparent[FLAGS_OFFSET] = HEX[(flags >> 4) & 0xF];
+        traceparent[FLAGS_OFFSET + 1] = HEX[flags & 0xF];
+        headers.add(TRACEPARENT, traceparent);
+
+        TraceState traceState = spanContext.getTraceState();
+        if (!traceState.isEmpty()) {
+            StringBuilder encoded = new StringBuilder();
+            traceState.forEach((key, value) -> {
+                if (encoded.length() > 0) {
+                    encoded.append(',');
+                }
+                encoded.append(key).append('=').append(value);
+            });
+            headers.add(TRACESTATE, encoded.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Returns the remote span context carried by the headers, or
+     * {@link SpanContext#getInvalid()} if there is none or it is malformed.
+     */
+    public static SpanContext extract(Headers headers) {
+        Header header = headers.lastHeader(TRACEPARENT);
+        if (header == null) {
+            return SpanContext.getInvalid();
+        }
+        byte[] value = header.value();
+        if (!isValidTraceparent(value)) {
+            return SpanContext.getInvalid();
+        }
+
+        String traceId = new String(value, TRACE_ID_OFFSET, 32, StandardCharsets.ISO_8859_1);
+        String spanId = new String(value, SPAN_ID_OFFSET, 16, StandardCharsets.ISO_8859_1);
+        byte flags = (byte) ((hexValue(value[FLAGS_OFFSET]) << 4) | hexValue(value[FLAGS_OFFSET + 1]));
+        Header tracestate = headers.lastHeader(TRACESTATE);
+        TraceState traceState = tracestate != null ? decodeTraceState(tracestate.value()) : TraceState.getDefault();
+        SpanContext spanContext = SpanContext.createFromRemoteParent(traceId, spanId,
+                TraceFlags.fromByte(flags), traceState);
+        // All-zero ids are well-formed but invalid, and must not pass on their flags
+        return spanContext.isValid() ? spanContext : SpanContext.getInvalid();
+    }
+
+    private static boolean isValidTraceparent(byte[] value) {
+        if (value == null || value.length < TRACEPARENT_LENGTH) {
+            return false;
+        }
+        int version = (hexValue(value[0]) << 4) | hexValue(value[1]);
+        // Version ff is forbidden; version 00 has a fixed length, later versions may append fields.
+        if (version < 0 || version == 0xff
+                || (version == 0 && value.length != TRACEPARENT_LENGTH)
+                || (version != 0 && value.length > TRACEPARENT_LENGTH && value[TRACEPARENT_LENGTH] != '-')) {
+            return false;
+        }
+        if (value[2] != '-' || value[SPAN_ID_OFFSET - 1] != '-' || value[FLAGS_OFFSET - 1] != '-') {
+            return false;
+        }
+        return isHex(value, TRACE_ID_OFFSET, 32) && isHex(value, SPAN_ID_OFFSET, 16) && isHex(value, FLAGS_OFFSET, 2);
+    }
+
+    /** Walks the list from the right, since the builder puts each entry in front of the previous ones. */
+    private static TraceState decodeTraceState(byte[] value) {
+        TraceStateBuilder builder = TraceState.builder();
+        int entries = 0;
+        int end = value.length;
+        while (end > 0 && entries < MAX_TRACESTATE_ENTRIES) {
+            int start = end;
+            while (start > 0 && value[start - 1] != ',') {
+                start--;
+            }
+            int equals = start;
+            while (equals < end && value[equals] != '=') {
+                equals++;
+            }
+            int keyStart = skipSpaces(value, start, equals);
+            if (equals < end && keyStart < equals) {
+                builder.put(new String(value, keyStart, equals - keyStart, StandardCharsets.ISO_8859_1),
+                        new String(value, equals + 1, end - equals - 1, StandardCharsets.ISO_8859_1).trim());
+                entries++;
+            }
+            end = start - 1;
+        }
+        return builder.build();
+    }
+
+    private static int skipSpaces(byte[] value, int from, int to) {
+        while (from < to && (value[from] == ' ' || value[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static void writeAscii(String value, byte[] target, int offset) {
+        for (int i = 0; i < value.length(); i++) {
+            target[offset + i] = (byte) value.charAt(i);
+        }
+    }
+
+    private static boolean isHex(byte[] value, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (hexValue(value[i]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.infrastructure;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingMetricExporter;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.OpenTelemetrySdkBuilder;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+/**
+ * Bootstraps the OpenTelemetry SDK from environment variables.
+ *
+ * <p>With both {@code TRACING_EXPORTER} and {@code METRICS_EXPORTER} unset or
+ * {@code none} nothing is installed and {@link GlobalOpenTelemetry} is used as
+ * is, e.g. as set up by the Java agent. Otherwise spans are sampled by a
+ * parent-based trace-id ratio sampler ({@code TRACING_SAMPLE_RATIO}) and
+ * exported through a batch span processor ({@code TRACING_MAX_QUEUE_SIZE},
+ * {@code TRACING_MAX_EXPORT_BATCH_SIZE}, {@code TRACING_EXPORT_INTERVAL_MS}) to
+ * OTLP ({@code TRACING_OTLP_ENDPOINT}) or the log, and metrics are read every
+ * {@code METRICS_EXPORT_INTERVAL_MS} and exported to OTLP
+ * ({@code METRICS_OTLP_ENDPOINT}) or the log. With metrics only, spans are
+ * never sampled or recorded.
+ */
+public final class TracingConfig {
+    private static final Logger logger = LoggerFactory.getLogger(TracingConfig.class);
+
+    private TracingConfig() {
+    }
+
+    public static OpenTelemetry initialize(String serviceName) {
+        String exporterName = EnvConfig.getString("TRACING_EXPORTER", "none");
+        String metricsExporterName = EnvConfig.getString("METRICS_EXPORTER", "none");
+        if ("none".equals(exporterName) && "none".equals(metricsExporterName)) {
+            return GlobalOpenTelemetry.get();
+        }
+
+        Resource resource = Resource.getDefault().merge(
+                Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName)));
+        OpenTelemetrySdkBuilder builder = OpenTelemetrySdk.builder()
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+
+        double sampleRatio = EnvConfig.getDouble("TRACING_SAMPLE_RATIO", 1.0);
+        if (!"none".equals(exporterName)) {
+            BatchSpanProcessor spanProcessor = BatchSpanProcessor.builder(createExporter(exporterName))
+                    .setMaxQueueSize(EnvConfig.getInt("TRACING_MAX_QUEUE_SIZE", 2048))
+                    .setMaxExportBatchSize(EnvConfig.getInt("TRACING_MAX_EXPORT_BATCH_SIZE", 512))
+                    .setScheduleDelay(EnvConfig.getLong("TRACING_EXPORT_INTERVAL_MS", 5000), TimeUnit.MILLISECONDS)
+                    .build();
+            builder.setTracerProvider(SdkTracerProvider.builder()
+                    .setResource(resource)
+                    .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(sampleRatio)))
+                    .addSpanProcessor(spanProcessor)
+                    .build());
+        } else {
+            // The SDK's default tracer provider samples every span, only to drop it for want of a processor
+            builder.setTracerProvider(SdkTracerProvider.builder()
+                    .setSampler(Sampler.alwaysOff())
+                    .build());
+        }
+
+        if (!"none".equals(metricsExporterName)) {
+            builder.setMeterProvider(SdkMeterProvider.builder()
+                    .setResource(resource)
+                    .registerMetricReader(PeriodicMetricReader.builder(createMetricExporter(metricsExporterName))
+                            .setInterval(Duration.ofMillis(EnvConfig.getLong("METRICS_EXPORT_INTERVAL_MS", 10000)))
+                            .build())
+                    .build());
+        }
+
+        OpenTelemetrySdk sdk = builder.buildAndRegisterGlobal();
+        Runtime.getRuntime().addShutdownHook(new Thread(sdk::close, "telemetry-shutdown"));
+
+        logger.info("Telemetry enabled for {}: traces={} sampleRatio={} metrics={}",
+                serviceName, exporterName, sampleRatio, metricsExporterName);
+        return sdk;
+    }
+
+    /** Whether fine-grained compute spans are wanted in addition to span events. */
+    public static boolean computeSpansEnabled() {
+        return EnvConfig.getBoolean("TRACING_COMPUTE_SPANS", false);
+    }
+
+    private static SpanExporter createExporter(String exporterName) {
+        switch (exporterName) {
+            case "otlp":
+                return OtlpGrpcSpanExporter.builder()
+                        .setEndpoint(EnvConfig.getString("TRACING_OTLP_ENDPOINT", "http://localhost:4317"))
+                        .build();
+            case "logging":
+                return LoggingSpanExporter.create();
+            default:
+                throw new IllegalArgumentException("Unknown TRACING_EXPORTER: " + exporterName);
+        }
+    }
+
+    private static MetricExporter createMetricExporter(String exporterName) {
+        switch (exporterName) {
+            case "otlp":
+                return OtlpGrpcMetricExporter.builder()
+                        .setEndpoint(EnvConfig.getString("METRICS_OTLP_ENDPOINT",
+                                EnvConfig.getString("TRACING_OTLP_ENDPOINT", "http://localhost:4317")))
+                        .build();
+            case "logging":
+                return LoggingMetricExporter.create();
+            default:
+                throw new IllegalArgumentException("Unknown METRICS_EXPORTER: " + exporterName);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.infrastructure;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionImpl;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Decodes price actions by reading each message into a {@link JsonNode} tree.
+ */
+public class TreePriceActionDecoder implements PriceActionDecoder {
+    private final ObjectMapper objectMapper = configureObjectMapper();
+
+    @Override
+    public PriceAction decode(byte[] json) throws IOException {
+        return objectMapper.readValue(json, PriceActionImpl.class);
+    }
+
+    private static ObjectMapper configureObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+
+        // Custom deserializer for PriceActionImpl
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(PriceActionImpl.class, new JsonDeserializer<PriceActionImpl>() {
+            @Override
+            public PriceActionImpl deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                JsonNode node = p.getCodec().readTree(p);
+                double open = node.get("open").asDouble();
+                double close = node.get("close").asDouble();
+                double high = node.get("high").asDouble();
+                double low = node.get("low").asDouble();
+                int volume = node.get("volume").asInt();
+                LocalDateTime date = LocalDateTime.parse(node.get("date").asText());
+                String underlying = node.get("underlying").asText();
+
+                return new PriceActionImpl(open, close, high, low, volume, date, underlying);
+            }
+        });
+        mapper.registerModule(module);
+
+        return mapper;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.infrastructure;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Executors for blocking, mostly-waiting tasks. On JDK 21 and later every task
+ * gets its own virtual thread; the modules still compile for Java 11, so the
+ * JDK API is looked up reflectively and older runtimes fall back to a cached
+ * pool of daemon platform threads.
+ */
+public final class VirtualThreads {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+    private static final Method OF_VIRTUAL = lookup(Thread.class, "ofVirtual");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = lookup(Executors.class, "newThreadPerTaskExecutor",
+            ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts one thread per task, virtual when the JDK
+     * supports it. Tasks run in the OpenTelemetry {@link Context} that was
+     * current when they were submitted.
+     */
+    public static ExecutorService newTaskExecutor(String namePrefix) {
+        ThreadFactory factory = isAvailable() ? virtualThreadFactory(namePrefix) : null;
+        ExecutorService executor;
+        if (factory != null) {
+            try {
+                executor = (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads unavailable, falling back to platform threads", e);
+                executor = Executors.newCachedThreadPool(platformThreadFactory(namePrefix));
+            }
+        } else {
+            executor = Executors.newCachedThreadPool(platformThreadFactory(namePrefix));
+        }
+        return Context.taskWrapping(executor);
+    }
+
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix + "-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads unavailable, falling back to platform threads", e);
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory(String namePrefix) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method lookup(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
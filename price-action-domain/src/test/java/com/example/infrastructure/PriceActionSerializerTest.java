@@ -0,0 +1,178 @@
+package com.example.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+import com.example.domain.PriceActionImpl;
+import com.example.domain.SymbolTable;
+
+class PriceActionSerializerTest {
+    private static final String TOPIC = "price-actions";
+    private static final PriceAction TICK = new PriceActionImpl(101.25, 102.5, 103.75, 100.125, 4200,
+            LocalDateTime.of(2024, 1, 2, 9, 30, 15, 123_456_789), "NVDA");
+
+    private final PriceActionDeserializer deserializer = new PriceActionDeserializer();
+
+    @Test
+    void roundTripsJsonByDefault() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(null).serialize(TOPIC, headers, TICK);
+
+        assertEquals(PriceActionWireFormat.JSON, format(headers));
+        assertSame(TICK, deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void roundTripsBinary() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, headers, TICK);
+
+        assertEquals(PriceActionWireFormat.BINARY, format(headers));
+        assertEquals(PriceActionWireFormat.BINARY_FIXED_SIZE + 4, data.length);
+        assertSame(TICK, deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void writesTheBinaryLayoutBigEndian() {
+        byte[] data = serializer("binary").serialize(TOPIC, new RecordHeaders(), TICK);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+
+        assertEquals(PriceActionWireFormat.BINARY_VERSION, buffer.get());
+        assertEquals(101.25, buffer.getDouble());
+        assertEquals(102.5, buffer.getDouble());
+        assertEquals(103.75, buffer.getDouble());
+        assertEquals(100.125, buffer.getDouble());
+        assertEquals(4200, buffer.getInt());
+        assertEquals(1704187815123456789L, buffer.getLong());
+        assertEquals(4, buffer.get());
+        byte[] underlying = new byte[4];
+        buffer.get(underlying);
+        assertArrayEquals("NVDA".getBytes(StandardCharsets.US_ASCII), underlying);
+    }
+
+    @Test
+    void roundTripsNonAsciiUnderlyingsInBinary() {
+        PriceAction tick = new PriceActionImpl(1, 2, 3, 0.5, 1, LocalDateTime.of(2024, 1, 2, 9, 30), "\u00C4BC\u20AC");
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, headers, tick);
+
+        assertSame(tick, deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void decodesBothFormatsIntoABatch() {
+        PriceActionBatch batch = new PriceActionBatch(new SymbolTable());
+        Headers jsonHeaders = new RecordHeaders();
+        Headers binaryHeaders = new RecordHeaders();
+        byte[] json = serializer(PriceActionWireFormat.JSON).serialize(TOPIC, jsonHeaders, TICK);
+        byte[] binary = serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, binaryHeaders, TICK);
+
+        PriceActionBatch.View view = batch.view();
+        assertSame(TICK, view.moveTo(deserializer.deserializeInto(jsonHeaders, json, batch)));
+        assertSame(TICK, view.moveTo(deserializer.deserializeInto(binaryHeaders, binary, batch)));
+        assertEquals(2, batch.size());
+    }
+
+    @Test
+    void replacesAFormatHeaderAlreadyOnTheRecord() {
+        Headers headers = new RecordHeaders();
+        headers.add(PriceActionWireFormat.FORMAT_HEADER, PriceActionWireFormat.JSON.getBytes(StandardCharsets.US_ASCII));
+        serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, headers, TICK);
+
+        int formats = 0;
+        for (Header header : headers.headers(PriceActionWireFormat.FORMAT_HEADER)) {
+            formats++;
+        }
+        assertEquals(1, formats);
+        assertEquals(PriceActionWireFormat.BINARY, format(headers));
+    }
+
+    @Test
+    void treatsRecordsWithoutTheFormatHeaderAsJson() {
+        byte[] json = serializer(PriceActionWireFormat.JSON).serialize(TOPIC, TICK);
+
+        assertSame(TICK, deserializer.deserialize(TOPIC, new RecordHeaders(), json));
+        assertSame(TICK, deserializer.deserialize(TOPIC, null, json));
+        PriceActionBatch batch = new PriceActionBatch(new SymbolTable());
+        assertSame(TICK, batch.view().moveTo(deserializer.deserializeInto(new RecordHeaders(), json, batch)));
+    }
+
+    @Test
+    void rejectsBinaryWithoutItsHeaderAsInvalidJson() {
+        byte[] binary = serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, TICK);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new RecordHeaders(), binary));
+    }
+
+    @Test
+    void rejectsTruncatedBinary() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, headers, TICK);
+
+        for (int length : new int[] {0, 1, PriceActionWireFormat.BINARY_FIXED_SIZE - 1, data.length - 1}) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, headers, truncated),
+                    "length " + length);
+            assertThrows(SerializationException.class,
+                    () -> deserializer.deserializeInto(headers, truncated, new PriceActionBatch(new SymbolTable())),
+                    "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsUnknownBinaryVersions() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(PriceActionWireFormat.BINARY).serialize(TOPIC, headers, TICK);
+        data[0] = PriceActionWireFormat.BINARY_VERSION + 1;
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        Headers headers = new RecordHeaders();
+        headers.add(PriceActionWireFormat.FORMAT_HEADER, "avro".getBytes(StandardCharsets.US_ASCII));
+        byte[] json = serializer(PriceActionWireFormat.JSON).serialize(TOPIC, TICK);
+
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, headers, json));
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserializeInto(headers, json, new PriceActionBatch(new SymbolTable())));
+        assertThrows(IllegalArgumentException.class, () -> serializer("avro"));
+    }
+
+    private static PriceActionSerializer serializer(String format) {
+        PriceActionSerializer serializer = new PriceActionSerializer();
+        serializer.configure(format == null ? Collections.emptyMap()
+                : Collections.singletonMap(PriceActionWireFormat.FORMAT_CONFIG, format), false);
+        return serializer;
+    }
+
+    private static String format(Headers headers) {
+        return new String(headers.lastHeader(PriceActionWireFormat.FORMAT_HEADER).value(), StandardCharsets.US_ASCII);
+    }
+
+    private static void assertSame(PriceAction expected, PriceAction actual) {
+        assertEquals(expected.getOpen(), actual.getOpen());
+        assertEquals(expected.getClose(), actual.getClose());
+        assertEquals(expected.getHigh(), actual.getHigh());
+        assertEquals(expected.getLow(), actual.getLow());
+        assertEquals(expected.getVolume(), actual.getVolume());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getUnderlying(), actual.getUnderlying());
+    }
+}
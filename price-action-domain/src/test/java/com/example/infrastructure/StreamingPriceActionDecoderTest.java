@@ -0,0 +1,122 @@
+package com.example.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.example.domain.EpochNanos;
+import com.example.domain.PriceAction;
+import com.example.domain.PriceActionBatch;
+import com.example.domain.SymbolTable;
+
+class StreamingPriceActionDecoderTest {
+    private final StreamingPriceActionDecoder streaming = new StreamingPriceActionDecoder();
+    private final TreePriceActionDecoder tree = new TreePriceActionDecoder();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"open\":101.25,\"close\":102.5,\"high\":103.75,\"low\":100.125,\"volume\":4200,"
+                    + "\"date\":\"2024-01-02T09:30:15.123\",\"underlying\":\"NVDA\"}",
+            "{\"underlying\":\"NVDA\",\"date\":\"2024-01-02T09:30:15.123\",\"volume\":4200,"
+                    + "\"low\":100.125,\"high\":103.75,\"close\":102.5,\"open\":101.25}",
+            "{\"volume\":4200,\"open\":101.25,\"date\":\"2024-01-02T09:30:15.123\",\"low\":100.125,"
+                    + "\"underlying\":\"NVDA\",\"close\":102.5,\"high\":103.75}"
+    })
+    void decodesFieldsInAnyOrderLikeTheTreeDecoder(String json) throws IOException {
+        assertSameAsTree(json);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "\"sequence\":17,",
+            "\"source\":\"feed-a\",\"exchange\":null,",
+            "\"meta\":{\"open\":1,\"venue\":{\"id\":[1,2,{\"close\":3}]}},",
+            "\"trades\":[[1,2],[3,{\"volume\":4}]],",
+            "\"flag\":true,\"ratio\":1.5e-3,"
+    })
+    void skipsUnknownFieldsLikeTheTreeDecoder(String unknown) throws IOException {
+        assertSameAsTree("{\"open\":101.25," + unknown + "\"close\":102.5,\"high\":103.75,\"low\":100.125,"
+                + "\"volume\":4200,\"date\":\"2024-01-02T09:30:15\",\"underlying\":\"NVDA\"}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2024-01-02T09:30",
+            "2024-02-29T23:59",
+            "2024-01-02T09:30:15",
+            "2024-01-02T09:30:15.1",
+            "2024-01-02T09:30:15.12",
+            "2024-01-02T09:30:15.123456",
+            "2024-01-02T09:30:15.12345678",
+            "2024-01-02T09:30:15.123456789",
+            "2024-01-02T09:30:15.000000001",
+            "2024-12-31T23:59:59.999999999",
+            "2024-01-02T09:30:15.",
+            "1970-01-01T00:00",
+            "1969-12-31T23:59:59.5",
+            "2000-02-29T12:00:00"
+    })
+    void parsesDatesLikeTheTreeDecoder(String date) throws IOException {
+        assertSameAsTree(json(date));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2023-02-29T09:30", "2024-04-31T09:30", "2024-13-01T09:30", "2024-01-02T24:00",
+            "2024-01-02T09:60", "2024-01-02T09:30:60", "2024-01-02 09:30", "2024-01-02"})
+    void rejectsDatesTheTreeDecoderRejects(String date) {
+        assertThrows(DateTimeException.class, () -> tree.decode(bytes(json(date))));
+        assertThrows(DateTimeException.class, () -> streaming.decode(bytes(json(date))));
+    }
+
+    @Test
+    void rejectsAMessageMissingAField() {
+        assertThrows(IOException.class, () -> streaming.decode(
+                bytes("{\"open\":1,\"close\":1,\"high\":1,\"low\":1,\"volume\":1,\"underlying\":\"NVDA\"}")));
+    }
+
+    @Test
+    void doesNotCarryFieldsOverFromThePreviousMessage() throws IOException {
+        streaming.decode(bytes(json("2024-01-02T09:30")));
+
+        assertThrows(IOException.class, () -> streaming.decode(
+                bytes("{\"open\":1,\"close\":1,\"high\":1,\"low\":1,\"volume\":1,\"underlying\":\"NVDA\"}")));
+        assertSameAsTree(json("2024-01-03T10:45:01.5").replace("NVDA", "AAPL"));
+    }
+
+    private void assertSameAsTree(String json) throws IOException {
+        PriceAction expected = tree.decode(bytes(json));
+        PriceAction decoded = streaming.decode(bytes(json));
+        assertSame(expected, decoded);
+
+        PriceActionBatch batch = new PriceActionBatch(new SymbolTable());
+        int row = streaming.decodeInto(bytes(json), batch);
+        assertSame(expected, batch.view().moveTo(row));
+        assertEquals(EpochNanos.of(expected.getDate()), batch.epochNanos(row));
+    }
+
+    private static void assertSame(PriceAction expected, PriceAction actual) {
+        assertEquals(expected.getOpen(), actual.getOpen());
+        assertEquals(expected.getClose(), actual.getClose());
+        assertEquals(expected.getHigh(), actual.getHigh());
+        assertEquals(expected.getLow(), actual.getLow());
+        assertEquals(expected.getVolume(), actual.getVolume());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getUnderlying(), actual.getUnderlying());
+    }
+
+    private static String json(String date) {
+        return "{\"open\":101.25,\"close\":102.5,\"high\":103.75,\"low\":100.125,\"volume\":4200,"
+                + "\"date\":\"" + date + "\",\"underlying\":\"NVDA\"}";
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
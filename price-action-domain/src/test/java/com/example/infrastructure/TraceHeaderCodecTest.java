@@ -0,0 +1,153 @@
+package com.example.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+
+class TraceHeaderCodecTest {
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+    private static final W3CTraceContextPropagator PROPAGATOR = W3CTraceContextPropagator.getInstance();
+    private static final TextMapGetter<Map<String, String>> GETTER = new TextMapGetter<Map<String, String>>() {
+        @Override
+        public Iterable<String> keys(Map<String, String> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, String> carrier, String key) {
+            return carrier == null ? null : carrier.get(key);
+        }
+    };
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Sampled and unsampled
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-01",
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-00",
+            // Unknown flag bits are kept
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-03",
+            // Later versions may append fields after a dash
+            "01-" + TRACE_ID + "-" + SPAN_ID + "-01",
+            "cc-" + TRACE_ID + "-" + SPAN_ID + "-01-what-the-future-holds",
+            // Invalid versions
+            "ff-" + TRACE_ID + "-" + SPAN_ID + "-01",
+            "0g-" + TRACE_ID + "-" + SPAN_ID + "-01",
+            // Version 00 has a fixed length
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-01-",
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-01x",
+            "cc-" + TRACE_ID + "-" + SPAN_ID + "-01x",
+            // Wrong lengths
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-0",
+            "00-" + TRACE_ID + "0-" + SPAN_ID + "-01",
+            "00-" + TRACE_ID + "-" + SPAN_ID + "0-1",
+            "",
+            // Invalid flags and ids
+            "00-" + TRACE_ID + "-" + SPAN_ID + "-0x",
+            "00-00000000000000000000000000000000-" + SPAN_ID + "-01",
+            "00-" + TRACE_ID + "-0000000000000000-01",
+            "00-4BF92F3577B34DA6A3CE929D0E0E4736-" + SPAN_ID + "-01",
+            "00_" + TRACE_ID + "-" + SPAN_ID + "-01",
+    })
+    void extractsTraceparentLikeThePropagator(String traceparent) {
+        Map<String, String> carrier = new HashMap<>();
+        carrier.put(TraceHeaderCodec.TRACEPARENT, traceparent);
+
+        assertEquals(propagatorExtract(carrier), TraceHeaderCodec.extract(headers(carrier)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "congo=t61rcWkgMzE",
+            "rojo=00f067aa0ba902b7,congo=t61rcWkgMzE",
+            "rojo=00f067aa0ba902b7 , congo=t61rcWkgMzE",
+            "vendor@tenant=value,other=1",
+    })
+    void extractsTracestateLikeThePropagator(String tracestate) {
+        Map<String, String> carrier = new HashMap<>();
+        carrier.put(TraceHeaderCodec.TRACEPARENT, "00-" + TRACE_ID + "-" + SPAN_ID + "-01");
+        carrier.put(TraceHeaderCodec.TRACESTATE, tracestate);
+
+        SpanContext extracted = TraceHeaderCodec.extract(headers(carrier));
+        assertEquals(propagatorExtract(carrier), extracted);
+        assertFalse(extracted.getTraceState().isEmpty());
+    }
+
+    @Test
+    void extractsNothingWithoutTraceparent() {
+        assertFalse(TraceHeaderCodec.extract(new RecordHeaders()).isValid());
+    }
+
+    @Test
+    void extractsTheLastTraceparentOfARecord() {
+        Headers headers = new RecordHeaders();
+        headers.add(TraceHeaderCodec.TRACEPARENT, ascii("00-" + TRACE_ID + "-" + SPAN_ID + "-00"));
+        headers.add(TraceHeaderCodec.TRACEPARENT, ascii("00-" + TRACE_ID + "-" + SPAN_ID + "-01"));
+
+        assertTrue(TraceHeaderCodec.extract(headers).isSampled());
+    }
+
+    @Test
+    void injectsWhatThePropagatorInjects() {
+        TraceState traceState = TraceState.builder().put("congo", "t61rcWkgMzE").put("rojo", "00f067aa0ba902b7").build();
+        for (TraceFlags flags : new TraceFlags[] {TraceFlags.getSampled(), TraceFlags.getDefault()}) {
+            for (TraceState state : new TraceState[] {TraceState.getDefault(), traceState}) {
+                SpanContext spanContext = SpanContext.create(TRACE_ID, SPAN_ID, flags, state);
+                Map<String, String> expected = new HashMap<>();
+                PROPAGATOR.inject(Context.root().with(Span.wrap(spanContext)), expected, Map::put);
+
+                Headers headers = new RecordHeaders();
+                TraceHeaderCodec.inject(spanContext, headers);
+                Map<String, String> injected = new HashMap<>();
+                for (Header header : headers) {
+                    injected.put(header.key(), new String(header.value(), StandardCharsets.US_ASCII));
+                }
+                assertEquals(expected, injected);
+                assertEquals(SpanContext.createFromRemoteParent(TRACE_ID, SPAN_ID, flags, state),
+                        TraceHeaderCodec.extract(headers));
+            }
+        }
+    }
+
+    @Test
+    void injectsNothingForAnInvalidContext() {
+        Headers headers = new RecordHeaders();
+        TraceHeaderCodec.inject(SpanContext.getInvalid(), headers);
+
+        assertNull(headers.lastHeader(TraceHeaderCodec.TRACEPARENT));
+    }
+
+    private static SpanContext propagatorExtract(Map<String, String> carrier) {
+        return Span.fromContext(PROPAGATOR.extract(Context.root(), carrier, GETTER)).getSpanContext();
+    }
+
+    private static Headers headers(Map<String, String> carrier) {
+        Headers headers = new RecordHeaders();
+        carrier.forEach((key, value) -> headers.add(key, ascii(value)));
+        return headers;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}